@@ -0,0 +1,94 @@
+package com.lab.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import com.lab.receiver.AllocationMonitor;
+import com.lab.receiver.ByteBufferPool;
+import com.lab.receiver.ConnectionStats;
+import com.lab.receiver.ConnectionStatsRegistry;
+import com.lab.receiver.ReceiverMetrics;
+import com.lab.receiver.ReceiverProperties;
+
+/**
+ * Per-chunk accounting of {@code handleMessage} under contention from
+ * several I/O threads: the original shared AtomicLong/AtomicInteger counters
+ * against {@link ConnectionStatsRegistry}, with all threads on one connection
+ * or each thread on its own connection.
+ * <p>
+ * The registry gets no-op meters (an empty {@link CompositeMeterRegistry})
+ * and JFR chunk sampling off, so only the accounting scheme is compared,
+ * not the Micrometer and JFR work added on top of it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HandlerAccountingBenchmark {
+
+    private static final int CHUNK_SIZE = 65536;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        final AtomicLong totalBytes = new AtomicLong();
+        final AtomicInteger chunkCounter = new AtomicInteger();
+        ConnectionStatsRegistry registry;
+
+        @Setup
+        public void setup() {
+            ReceiverProperties properties = new ReceiverProperties();
+            properties.getJfr().setChunkSampleEvery(0);
+            // Un CompositeMeterRegistry sin registros hijos devuelve medidores no-op.
+            registry = new ConnectionStatsRegistry(properties, new AllocationMonitor(), new ByteBufferPool(properties),
+                    new ReceiverMetrics(new CompositeMeterRegistry(), properties));
+            registry.open("shared");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+
+        private static final AtomicInteger IDS = new AtomicInteger();
+        String connectionId;
+
+        @Setup
+        public void setup(Shared shared) {
+            connectionId = "connection-" + IDS.incrementAndGet();
+            shared.registry.open(connectionId);
+        }
+    }
+
+    @Benchmark
+    public long legacyAtomicCounters(Shared shared) {
+        long total = shared.totalBytes.addAndGet(CHUNK_SIZE);
+        return total + shared.chunkCounter.incrementAndGet();
+    }
+
+    @Benchmark
+    public ConnectionStats registrySharedConnection(Shared shared) {
+        return shared.registry.record("shared", CHUNK_SIZE);
+    }
+
+    @Benchmark
+    public ConnectionStats registryConnectionPerThread(Shared shared, PerThread perThread) {
+        return shared.registry.record(perThread.connectionId, CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,86 @@
+package com.lab.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolEncoder;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.apache.mina.filter.codec.textline.TextLineCodecFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.lab.sender.Frame;
+import com.lab.sender.FrameEncoder;
+
+/**
+ * Sender-side encoding cost per message: MINA's {@code TextLineCodecFactory}
+ * (String to UTF-8 line), the binary {@link FrameEncoder}, and copying the
+ * bytes straight into an {@link IoBuffer} as the lower bound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MinaEncodeBenchmark {
+
+    @Param({ "70", "1024", "16384" })
+    public int messageSize;
+
+    private IoSession session;
+    private ProtocolEncoder textLineEncoder;
+    private ProtocolEncoder frameEncoder;
+    private String line;
+    private byte[] bytes;
+    private Frame frame;
+
+    @Setup
+    public void setup() throws Exception {
+        session = new DummySession();
+        TextLineCodecFactory textLine = new TextLineCodecFactory(StandardCharsets.UTF_8);
+        textLine.setEncoderMaxLineLength(Integer.MAX_VALUE);
+        textLineEncoder = textLine.getEncoder(session);
+        frameEncoder = new FrameEncoder();
+        bytes = new byte[messageSize];
+        Arrays.fill(bytes, (byte) 'x');
+        line = new String(bytes, StandardCharsets.US_ASCII);
+        frame = Frame.data(1, 0, bytes);
+    }
+
+    @Benchmark
+    public void textLineCodec(Blackhole blackhole) throws Exception {
+        textLineEncoder.encode(session, line, output(blackhole));
+    }
+
+    @Benchmark
+    public void frameCodec(Blackhole blackhole) throws Exception {
+        frameEncoder.encode(session, frame, output(blackhole));
+    }
+
+    @Benchmark
+    public IoBuffer rawIoBuffer() {
+        IoBuffer buffer = IoBuffer.allocate(bytes.length + 1);
+        buffer.put(bytes);
+        buffer.put((byte) '\n');
+        return buffer.flip();
+    }
+
+    private static ProtocolEncoderOutput output(Blackhole blackhole) {
+        return blackhole::consume;
+    }
+}
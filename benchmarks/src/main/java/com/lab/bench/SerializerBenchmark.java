@@ -0,0 +1,103 @@
+package com.lab.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.integration.ip.tcp.serializer.AbstractByteArraySerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayLengthHeaderSerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayLfSerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayRawSerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayStxEtxSerializer;
+
+import com.lab.receiver.ByteBufferPool;
+import com.lab.receiver.Frame;
+import com.lab.receiver.FrameSerializer;
+import com.lab.receiver.PooledChunkDeserializer;
+import com.lab.receiver.ReceiverProperties;
+
+/**
+ * Cost of turning one chunk of the connection stream into a message payload,
+ * for the Spring Integration serializers and the receiver's own ones.
+ * Each invocation deserializes one message of {@code chunkSize} bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({ "64", "1024", "16384", "131072" })
+    public int chunkSize;
+
+    @Param({ "RAW", "LF", "LENGTH_HEADER", "STX_ETX", "FRAME", "POOLED" })
+    public String serializer;
+
+    private Deserializer<?> deserializer;
+    private ByteBufferPool pool;
+    private ByteArrayInputStream input;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] payload = new byte[chunkSize];
+        // Sin '\n' ni STX/ETX en el contenido para que todos los formatos sean válidos.
+        Arrays.fill(payload, (byte) 'x');
+        int maxMessageSize = chunkSize + 64;
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        switch (serializer) {
+            case "FRAME" -> {
+                FrameSerializer frameSerializer = new FrameSerializer(maxMessageSize);
+                frameSerializer.serialize(new Frame(Frame.TYPE_DATA, 1, 0, payload), encoded);
+                deserializer = frameSerializer;
+            }
+            case "POOLED" -> {
+                ReceiverProperties properties = new ReceiverProperties();
+                properties.getPool().setBufferSize(maxMessageSize);
+                properties.getPool().setBuffers(4);
+                pool = new ByteBufferPool(properties);
+                encoded.write(payload);
+                deserializer = new PooledChunkDeserializer(pool);
+            }
+            default -> {
+                AbstractByteArraySerializer byteArraySerializer = switch (serializer) {
+                    case "LF" -> new ByteArrayLfSerializer();
+                    case "LENGTH_HEADER" -> new ByteArrayLengthHeaderSerializer();
+                    case "STX_ETX" -> new ByteArrayStxEtxSerializer();
+                    default -> new ByteArrayRawSerializer();
+                };
+                byteArraySerializer.setMaxMessageSize(maxMessageSize);
+                byteArraySerializer.serialize(payload, encoded);
+                deserializer = byteArraySerializer;
+            }
+        }
+        input = new ByteArrayInputStream(encoded.toByteArray());
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        input.reset();
+        Object payload = deserializer.deserialize(input);
+        if (pool != null) {
+            pool.release((ByteBuffer) payload);
+        }
+        return payload;
+    }
+}
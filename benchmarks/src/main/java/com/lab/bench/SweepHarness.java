@@ -0,0 +1,267 @@
+package com.lab.bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.integration.ip.tcp.connection.AbstractServerConnectionFactory;
+
+import com.lab.receiver.AllocationMonitor;
+import com.lab.receiver.ConnectionStatsRegistry;
+import com.lab.receiver.NioReceiverEngine;
+import com.lab.receiver.ReceiverProperties;
+import com.lab.receiver.SpringReceiverApplication;
+import com.lab.sender.LoadGenerator;
+import com.lab.sender.SenderSettings;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Parameter sweep over loopback: for every combination of the
+ * {@code -Dsweep.*} lists it starts the receiver in-process, runs a warm-up
+ * and a measured {@link LoadGenerator} load, and appends a row to
+ * {@code sweep.csv}/{@code sweep.md} (see {@link SweepReport}).
+ * {@code -Dsweep.engine=SPRING,NIO} runs the same matrix on both receiver engines.
+ * <p>
+ * CPU time and allocation are process-wide, so they include the sender.
+ */
+public class SweepHarness {
+
+    private static final long LISTEN_TIMEOUT_MILLIS = 10_000;
+    private static final long DRAIN_TIMEOUT_MILLIS = 120_000;
+    private static final int DEFAULT_MAX_MESSAGE_SIZE = 131072;
+
+    /**
+     * Receiver deserializer under test; the sender codec follows from it.
+     */
+    public enum Serializer {
+        RAW, RAW_POOLED, LINE, BINARY
+    }
+
+    /**
+     * One point of the matrix. Buffer sizes of 0 keep the OS/MINA default.
+     */
+    public record Combination(ReceiverProperties.Engine engine, int receiveBufferSize, int sendBufferSize, int readBufferSize, int messageSize,
+            Serializer serializer, int connections) {
+    }
+
+    /**
+     * Measured run of one combination. CPU and allocation cover the whole JVM.
+     */
+    public record Result(Combination combination, long messages, long bytes, long nanos, long cpuNanos,
+            long allocatedBytes, long gcCount, long gcTimeMillis) {
+
+        public double megabytesPerSecond() {
+            return nanos > 0 ? (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0) : 0;
+        }
+
+        public double messagesPerSecond() {
+            return nanos > 0 ? messages / (nanos / 1_000_000_000.0) : 0;
+        }
+
+        public double cpuSecondsPerGigabyte() {
+            return bytes > 0 ? (cpuNanos / 1_000_000_000.0) / gigabytes() : 0;
+        }
+
+        public double allocatedMegabytesPerGigabyte() {
+            return bytes > 0 ? (allocatedBytes / (1024.0 * 1024.0)) / gigabytes() : 0;
+        }
+
+        private double gigabytes() {
+            return bytes / (1024.0 * 1024.0 * 1024.0);
+        }
+    }
+
+    private final int port;
+    private final long messages;
+    private final long warmupMessages;
+    private final String logLevel;
+    private final AllocationMonitor allocationMonitor = new AllocationMonitor();
+    private final com.sun.management.OperatingSystemMXBean osBean =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    public SweepHarness(int port, long messages, long warmupMessages, String logLevel) {
+        this.port = port;
+        this.messages = messages;
+        this.warmupMessages = warmupMessages;
+        this.logLevel = logLevel;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Combination> combinations = matrix(
+                Arrays.stream(System.getProperty("sweep.engine", "SPRING").split(","))
+                        .map(value -> ReceiverProperties.Engine.valueOf(value.trim().toUpperCase(Locale.ROOT)))
+                        .toList(),
+                ints("sweep.soRcvBuf", "0,131072,1048576"),
+                ints("sweep.soSndBuf", "0,1048576"),
+                ints("sweep.readBuffer", "0"),
+                ints("sweep.messageSize", "128,4096"),
+                Arrays.stream(System.getProperty("sweep.serializer", "RAW,LINE,BINARY").split(","))
+                        .map(value -> Serializer.valueOf(value.trim().toUpperCase(Locale.ROOT)))
+                        .toList(),
+                ints("sweep.connections", "1,4"));
+        SweepHarness harness = new SweepHarness(
+                Integer.getInteger("sweep.port", 12345),
+                Long.getLong("sweep.messages", 500_000),
+                Long.getLong("sweep.warmupMessages", 100_000),
+                System.getProperty("sweep.logLevel", "WARN"));
+        Path outputDir = Path.of(System.getProperty("sweep.out", "target/sweep"));
+
+        System.out.printf("🧪 Barrido de %d combinaciones (%d mensajes medidos, %d de calentamiento) -> %s%n",
+                combinations.size(), harness.messages, harness.warmupMessages, outputDir.toAbsolutePath());
+        try (SweepReport report = SweepReport.create(outputDir)) {
+            int index = 0;
+            for (Combination combination : combinations) {
+                index++;
+                Result result = harness.run(combination);
+                report.add(result);
+                System.out.printf("[%d/%d] %s -> %.2f MB/s, %.2f s CPU/GB, %.1f MB asignados/GB%n", index,
+                        combinations.size(), combination, result.megabytesPerSecond(), result.cpuSecondsPerGigabyte(),
+                        result.allocatedMegabytesPerGigabyte());
+            }
+        }
+        System.out.println("✅ Barrido terminado.");
+    }
+
+    /**
+     * Starts a receiver for the combination, warms it up and measures one run.
+     */
+    public Result run(Combination combination) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringReceiverApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(receiverArguments(combination))) {
+            awaitListening(context, combination.engine());
+            ConnectionStatsRegistry registry = context.getBean(ConnectionStatsRegistry.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            Counter receivedBytes = meterRegistry.get("receiver.bytes").counter();
+            Counter receivedMessages = meterRegistry.get("receiver.messages").counter();
+            Counter openedConnections = meterRegistry.get("receiver.connections.opened").counter();
+
+            if (warmupMessages > 0) {
+                runLoad(combination, warmupMessages, registry, openedConnections);
+            }
+
+            double bytesBefore = receivedBytes.count();
+            double messagesBefore = receivedMessages.count();
+            AllocationMonitor.Snapshot start = allocationMonitor.snapshot();
+            long cpuStart = osBean.getProcessCpuTime();
+
+            runLoad(combination, messages, registry, openedConnections);
+
+            long cpuEnd = osBean.getProcessCpuTime();
+            AllocationMonitor.Snapshot end = allocationMonitor.snapshot();
+            return new Result(combination,
+                    (long) (receivedMessages.count() - messagesBefore),
+                    (long) (receivedBytes.count() - bytesBefore),
+                    end.nanos() - start.nanos(),
+                    cpuEnd - cpuStart,
+                    end.allocatedBytes() - start.allocatedBytes(),
+                    end.gcCount() - start.gcCount(),
+                    end.gcTimeMillis() - start.gcTimeMillis());
+        }
+    }
+
+    /**
+     * Runs the sender until it has closed its sessions and the receiver has
+     * seen every open and close event of the run.
+     */
+    private void runLoad(Combination combination, long messageCount, ConnectionStatsRegistry registry,
+            Counter openedConnections) throws InterruptedException {
+        double expectedOpened = openedConnections.count() + combination.connections();
+        SenderSettings settings = new SenderSettings();
+        settings.setMode(SenderSettings.Mode.LOAD);
+        settings.setHost("127.0.0.1");
+        settings.setPort(port);
+        settings.setCodec(combination.serializer() == Serializer.BINARY ? SenderSettings.Codec.BINARY : SenderSettings.Codec.TEXT);
+        settings.setSessions(combination.connections());
+        settings.setMessageSize(combination.messageSize());
+        settings.setMessages(messageCount);
+        settings.setSendBufferSize(combination.sendBufferSize());
+        settings.setReadBufferSize(combination.readBufferSize());
+        new LoadGenerator(settings).run();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MILLIS);
+        while (openedConnections.count() < expectedOpened || registry.getActiveConnections() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("El receptor no cerró las conexiones a tiempo");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Command-line arguments so that they win over the receiver's
+     * {@code application.properties}.
+     */
+    private String[] receiverArguments(Combination combination) {
+        // Una línea o un frame completo debe caber en maxMessageSize.
+        int maxMessageSize = Math.max(DEFAULT_MAX_MESSAGE_SIZE, combination.messageSize() * 2);
+        Serializer serializer = combination.serializer();
+        return new String[] {
+                "--receiver.engine=" + combination.engine().name().toLowerCase(Locale.ROOT),
+                "--receiver.port=" + port,
+                "--receiver.framing=" + (serializer == Serializer.RAW_POOLED ? "RAW" : serializer.name()),
+                "--receiver.pool.enabled=" + (serializer == Serializer.RAW_POOLED),
+                "--receiver.max-message-size=" + maxMessageSize,
+                "--receiver.socket.receive-buffer-size=" + combination.receiveBufferSize(),
+                // El receptor no envía datos: su SO_SNDBUF se deja por defecto.
+                "--receiver.socket.send-buffer-size=0",
+                "--logging.level.com.lab=" + logLevel
+        };
+    }
+
+    private void awaitListening(ConfigurableApplicationContext context, ReceiverProperties.Engine engine)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LISTEN_TIMEOUT_MILLIS);
+        while (engine == ReceiverProperties.Engine.NIO
+                ? !context.getBean(NioReceiverEngine.class).isListening()
+                : !context.getBean(AbstractServerConnectionFactory.class).isListening()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("El receptor no empezó a escuchar en el puerto " + port);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Combination> matrix(List<ReceiverProperties.Engine> engines, List<Integer> receiveBuffers,
+            List<Integer> sendBuffers, List<Integer> readBuffers, List<Integer> messageSizes, List<Serializer> serializers,
+            List<Integer> connections) {
+        List<Combination> combinations = new ArrayList<>();
+        for (ReceiverProperties.Engine engine : engines) {
+            for (int receiveBuffer : receiveBuffers) {
+                for (int sendBuffer : sendBuffers) {
+                    for (int readBuffer : readBuffers) {
+                        for (int messageSize : messageSizes) {
+                            for (Serializer serializer : serializers) {
+                                for (int connectionCount : connections) {
+                                    combinations.add(new Combination(engine, receiveBuffer, sendBuffer, readBuffer,
+                                            messageSize, serializer, connectionCount));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return combinations;
+    }
+
+    private static List<Integer> ints(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+    }
+}
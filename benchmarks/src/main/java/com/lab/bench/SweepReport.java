@@ -0,0 +1,101 @@
+package com.lab.bench;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Results of a {@link SweepHarness} run. {@code sweep.csv} gets one row per
+ * combination as soon as it finishes, so an aborted sweep keeps its data;
+ * {@code sweep.md} is written on {@link #close()}, sorted by throughput.
+ */
+public class SweepReport implements Closeable {
+
+    private static final String[] COLUMNS = {
+            "engine", "so_rcvbuf", "so_sndbuf", "read_buffer", "message_size", "serializer", "connections",
+            "messages", "bytes", "seconds", "mb_per_s", "msg_per_s", "cpu_s", "cpu_s_per_gb",
+            "alloc_mb", "alloc_mb_per_gb", "gc_count", "gc_ms"
+    };
+
+    private final Path markdownFile;
+    private final BufferedWriter csv;
+    private final List<SweepHarness.Result> results = new ArrayList<>();
+
+    private SweepReport(Path markdownFile, BufferedWriter csv) {
+        this.markdownFile = markdownFile;
+        this.csv = csv;
+    }
+
+    public static SweepReport create(Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        BufferedWriter csv = Files.newBufferedWriter(outputDir.resolve("sweep.csv"), StandardCharsets.UTF_8);
+        csv.write(String.join(",", COLUMNS));
+        csv.newLine();
+        csv.flush();
+        return new SweepReport(outputDir.resolve("sweep.md"), csv);
+    }
+
+    public void add(SweepHarness.Result result) throws IOException {
+        results.add(result);
+        csv.write(String.join(",", cells(result)));
+        csv.newLine();
+        csv.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+        List<SweepHarness.Result> sorted = new ArrayList<>(results);
+        sorted.sort((a, b) -> Double.compare(b.megabytesPerSecond(), a.megabytesPerSecond()));
+        try (BufferedWriter markdown = Files.newBufferedWriter(markdownFile, StandardCharsets.UTF_8)) {
+            markdown.write("# Barrido de parámetros (ordenado por MB/s)");
+            markdown.newLine();
+            markdown.newLine();
+            markdown.write("Buffers a 0 = valor por defecto del SO / MINA. CPU y asignación son del proceso completo (emisor + receptor).");
+            markdown.newLine();
+            markdown.newLine();
+            markdown.write("| " + String.join(" | ", COLUMNS) + " |");
+            markdown.newLine();
+            markdown.write("|" + "---|".repeat(COLUMNS.length));
+            markdown.newLine();
+            for (SweepHarness.Result result : sorted) {
+                markdown.write("| " + String.join(" | ", cells(result)) + " |");
+                markdown.newLine();
+            }
+        }
+    }
+
+    private static List<String> cells(SweepHarness.Result result) {
+        SweepHarness.Combination combination = result.combination();
+        return List.of(
+                combination.engine().name(),
+                String.valueOf(combination.receiveBufferSize()),
+                String.valueOf(combination.sendBufferSize()),
+                String.valueOf(combination.readBufferSize()),
+                String.valueOf(combination.messageSize()),
+                combination.serializer().name(),
+                String.valueOf(combination.connections()),
+                String.valueOf(result.messages()),
+                String.valueOf(result.bytes()),
+                format("%.3f", result.nanos() / 1_000_000_000.0),
+                format("%.2f", result.megabytesPerSecond()),
+                format("%.0f", result.messagesPerSecond()),
+                format("%.3f", result.cpuNanos() / 1_000_000_000.0),
+                format("%.3f", result.cpuSecondsPerGigabyte()),
+                format("%.1f", result.allocatedBytes() / (1024.0 * 1024.0)),
+                format("%.1f", result.allocatedMegabytesPerGigabyte()),
+                String.valueOf(result.gcCount()),
+                String.valueOf(result.gcTimeMillis()));
+    }
+
+    private static String format(String pattern, double value) {
+        // Punto decimal siempre, para que el CSV no dependa del locale.
+        return String.format(Locale.ROOT, pattern, value);
+    }
+}
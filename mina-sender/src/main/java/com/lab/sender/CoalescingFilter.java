@@ -0,0 +1,223 @@
+package com.lab.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.future.DefaultWriteFuture;
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.write.DefaultWriteRequest;
+import org.apache.mina.core.write.WriteRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Packs small encoded messages into one large {@link IoBuffer} before they
+ * reach the write queue, so hundreds of ~70-byte lines cost one queue entry
+ * and one socket write. Must sit between the codec and the head of the chain
+ * ({@code addBefore("codec", ...)}). The byte stream is unchanged.
+ * <p>
+ * A batch is flushed when it reaches the configured size, when its first
+ * message has waited the maximum delay, or before any message that cannot
+ * be coalesced (large buffers, {@code FileRegion}s). The original write
+ * futures and {@code messageSent} events fire when their batch is written.
+ */
+public class CoalescingFilter extends IoFilterAdapter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingFilter.class);
+    private static final AttributeKey BATCH_KEY = new AttributeKey(CoalescingFilter.class, "batch");
+
+    /**
+     * Why a batch was written.
+     */
+    public enum FlushReason {
+        FULL, DELAY, BYPASS
+    }
+
+    private final int batchSize;
+    private final long maxDelayMicros;
+    private final ScheduledExecutorService timer;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedMessages = new LongAdder();
+    private final LongAdder batchedBytes = new LongAdder();
+    private final LongAdder bypassedMessages = new LongAdder();
+    private final LongAdder[] flushReasons = new LongAdder[FlushReason.values().length];
+
+    public CoalescingFilter(int batchSize, long maxDelayMicros) {
+        this.batchSize = batchSize;
+        this.maxDelayMicros = maxDelayMicros;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coalescing-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < flushReasons.length; i++) {
+            flushReasons[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void filterWrite(NextFilter nextFilter, IoSession session, WriteRequest writeRequest) throws Exception {
+        Batch batch = batchOf(session, nextFilter);
+        Object message = writeRequest.getMessage();
+        synchronized (batch) {
+            if (message instanceof IoBuffer buffer && buffer.remaining() <= batchSize / 2) {
+                if (buffer.remaining() > batch.buffer.remaining()) {
+                    flush(session, batch, FlushReason.FULL);
+                }
+                boolean first = batch.pending.isEmpty();
+                batch.buffer.put(buffer);
+                batch.pending.add(writeRequest);
+                if (!batch.buffer.hasRemaining()) {
+                    flush(session, batch, FlushReason.FULL);
+                } else if (first) {
+                    scheduleDelayedFlush(session, batch);
+                }
+                return;
+            }
+            // No se puede agrupar: se vacía el lote para mantener el orden y se deja pasar.
+            if (!batch.pending.isEmpty()) {
+                flush(session, batch, FlushReason.BYPASS);
+            }
+            bypassedMessages.increment();
+            nextFilter.filterWrite(session, writeRequest);
+        }
+    }
+
+    @Override
+    public void messageSent(NextFilter nextFilter, IoSession session, WriteRequest writeRequest) throws Exception {
+        if (writeRequest instanceof BatchWriteRequest batchRequest) {
+            // Cada petición original completa su future y recorre la cadena como si se hubiera escrito sola.
+            for (WriteRequest original : batchRequest.originals) {
+                session.getFilterChain().fireMessageSent(original);
+            }
+            return;
+        }
+        nextFilter.messageSent(session, writeRequest);
+    }
+
+    @Override
+    public void sessionClosed(NextFilter nextFilter, IoSession session) throws Exception {
+        Batch batch = (Batch) session.removeAttribute(BATCH_KEY);
+        if (batch != null) {
+            synchronized (batch) {
+                batch.closed = true;
+                IllegalStateException cause = new IllegalStateException("Session closed before the batch was flushed");
+                for (WriteRequest original : batch.pending) {
+                    original.getFuture().setException(cause);
+                }
+                batch.pending.clear();
+            }
+        }
+        nextFilter.sessionClosed(session);
+    }
+
+    /**
+     * Logs the batch-size and flush-reason counters.
+     */
+    public void logStats() {
+        long batchCount = batches.sum();
+        LOGGER.info("--- COALESCING ({} bytes, máx {} µs) ---", batchSize, maxDelayMicros);
+        LOGGER.info("   Lotes escritos: {} ({} mensajes, {} bytes)", batchCount, batchedMessages.sum(), batchedBytes.sum());
+        LOGGER.info("   Media por lote: {} mensajes, {} bytes",
+                String.format("%.1f", batchCount > 0 ? (double) batchedMessages.sum() / batchCount : 0),
+                String.format("%.0f", batchCount > 0 ? (double) batchedBytes.sum() / batchCount : 0));
+        LOGGER.info("   Motivo de flush: lleno={}, retardo={}, bypass={}", flushReasons[FlushReason.FULL.ordinal()].sum(),
+                flushReasons[FlushReason.DELAY.ordinal()].sum(), flushReasons[FlushReason.BYPASS.ordinal()].sum());
+        LOGGER.info("   Mensajes sin agrupar: {}", bypassedMessages.sum());
+    }
+
+    /**
+     * Stops the flush timer.
+     */
+    public void dispose() {
+        timer.shutdownNow();
+    }
+
+    private Batch batchOf(IoSession session, NextFilter nextFilter) {
+        Batch batch = (Batch) session.getAttribute(BATCH_KEY);
+        if (batch == null) {
+            Batch created = new Batch(nextFilter, batchSize);
+            batch = (Batch) session.setAttributeIfAbsent(BATCH_KEY, created);
+            if (batch == null) {
+                batch = created;
+            }
+        }
+        return batch;
+    }
+
+    private void scheduleDelayedFlush(IoSession session, Batch batch) {
+        long generation = batch.generation;
+        timer.schedule(() -> {
+            synchronized (batch) {
+                if (batch.generation == generation && !batch.pending.isEmpty() && !batch.closed) {
+                    flush(session, batch, FlushReason.DELAY);
+                }
+            }
+        }, maxDelayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Writes the current batch. Called with the batch lock held so batches
+     * enter the write queue in order.
+     */
+    private void flush(IoSession session, Batch batch, FlushReason reason) {
+        IoBuffer buffer = batch.buffer.flip();
+        List<WriteRequest> originals = batch.pending;
+        batches.increment();
+        batchedMessages.add(originals.size());
+        batchedBytes.add(buffer.remaining());
+        flushReasons[reason.ordinal()].increment();
+
+        BatchWriteRequest request = new BatchWriteRequest(buffer, new DefaultWriteFuture(session), originals);
+        request.getFuture().addListener(future -> {
+            Throwable cause = request.getFuture().getException();
+            if (cause != null) {
+                for (WriteRequest original : originals) {
+                    original.getFuture().setException(cause);
+                }
+            }
+        });
+        batch.buffer = IoBuffer.allocate(batchSize);
+        batch.pending = new ArrayList<>();
+        batch.generation++;
+        batch.nextFilter.filterWrite(session, request);
+    }
+
+    /**
+     * Pending batch of one session. Guarded by its own monitor.
+     */
+    private static final class Batch {
+
+        private final NextFilter nextFilter;
+        private IoBuffer buffer;
+        private List<WriteRequest> pending = new ArrayList<>();
+        private long generation;
+        private boolean closed;
+
+        Batch(NextFilter nextFilter, int batchSize) {
+            this.nextFilter = nextFilter;
+            this.buffer = IoBuffer.allocate(batchSize);
+        }
+    }
+
+    /**
+     * Write request carrying a whole batch and the original requests it replaces.
+     */
+    private static final class BatchWriteRequest extends DefaultWriteRequest {
+
+        private final List<WriteRequest> originals;
+
+        BatchWriteRequest(IoBuffer buffer, DefaultWriteFuture future, List<WriteRequest> originals) {
+            super(buffer, future);
+            this.originals = originals;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.lab.sender;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32C;
+
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits for the receiver's {@link CompletionSummary} after END so that the
+ * sender stops its clock when the receiver has really read everything,
+ * and compares the receiver's totals with its own. {@link MinaClientHandler}
+ * completes it from {@code messageReceived} and fails it on {@code sessionClosed}.
+ * <p>
+ * With {@code sender.ack.checksum} the producer also feeds every byte it
+ * writes into a CRC32C, compared with the receiver's when both computed one.
+ */
+public class CompletionAck {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompletionAck.class);
+    private static final AttributeKey ACK_KEY = new AttributeKey(CompletionAck.class, "ack");
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final IoSession session;
+    private final CompletableFuture<CompletionSummary> summary = new CompletableFuture<>();
+    // Solo lo actualiza el hilo productor de la sesión.
+    private final CRC32C checksum;
+    private final byte[] frameHeader;
+    private volatile long receivedAtNanos;
+
+    private CompletionAck(IoSession session, boolean checksum) {
+        this.session = session;
+        this.checksum = checksum ? new CRC32C() : null;
+        this.frameHeader = checksum ? new byte[Frame.HEADER_SIZE] : null;
+    }
+
+    /**
+     * Creates the ack for a session and attaches it so that
+     * {@link #of(IoSession)} can find it from the handler callbacks.
+     */
+    public static CompletionAck attach(IoSession session, boolean checksum) {
+        CompletionAck ack = new CompletionAck(session, checksum);
+        session.setAttribute(ACK_KEY, ack);
+        return ack;
+    }
+
+    /**
+     * The ack attached to the session, or {@code null}.
+     */
+    public static CompletionAck of(IoSession session) {
+        return (CompletionAck) session.getAttribute(ACK_KEY);
+    }
+
+    public boolean isChecksumEnabled() {
+        return checksum != null;
+    }
+
+    /**
+     * Adds a text line as the codec writes it: UTF-8 plus {@code \n}.
+     */
+    public void update(String line) {
+        if (checksum != null) {
+            checksum.update(line.getBytes(StandardCharsets.UTF_8));
+            checksum.update(NEWLINE);
+        }
+    }
+
+    public void update(Frame frame) {
+        if (checksum != null) {
+            ByteBuffer.wrap(frameHeader)
+                    .putInt(frame.payload().length)
+                    .put(frame.type())
+                    .putLong(frame.sequence())
+                    .putLong(frame.timestamp());
+            checksum.update(frameHeader);
+            checksum.update(frame.payload());
+        }
+    }
+
+    /**
+     * Adds the remaining bytes of {@code data} without moving its position.
+     */
+    public void update(ByteBuffer data) {
+        if (checksum != null) {
+            checksum.update(data.duplicate());
+        }
+    }
+
+    /**
+     * Handler callback. Returns {@code true} if the message was the summary.
+     */
+    boolean onMessage(Object message) {
+        CompletionSummary received = null;
+        if (message instanceof Frame frame) {
+            received = CompletionSummary.fromFrame(frame);
+        } else if (message instanceof String line) {
+            received = CompletionSummary.fromLine(line);
+        }
+        if (received == null) {
+            return false;
+        }
+        receivedAtNanos = System.nanoTime();
+        summary.complete(received);
+        return true;
+    }
+
+    /**
+     * Handler callback: a session closed before the summary will never get one.
+     */
+    void onSessionClosed() {
+        summary.completeExceptionally(new IllegalStateException("Session " + session.getId() + " closed before the summary"));
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for the summary, compares it with the
+     * {@code sentBytes} written (END included) and returns the end time of the
+     * transfer: when the summary arrived, or now if it did not (0 = do not wait).
+     */
+    public long awaitCompletion(long timeoutMillis, long sentBytes) {
+        if (timeoutMillis <= 0) {
+            return System.nanoTime();
+        }
+        CompletionSummary received;
+        try {
+            received = summary.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.warn("⚠️ Sin resumen del receptor tras {} ms (Sesión {}): el tiempo medido solo cubre el envío.",
+                    timeoutMillis, session.getId());
+            return System.nanoTime();
+        } catch (ExecutionException e) {
+            LOGGER.warn("⚠️ Sin resumen del receptor (Sesión {}): {}", session.getId(), e.getCause().getMessage());
+            return System.nanoTime();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return System.nanoTime();
+        }
+        compare(received, sentBytes);
+        return receivedAtNanos;
+    }
+
+    private void compare(CompletionSummary received, long sentBytes) {
+        LOGGER.info("📨 Resumen del receptor (Sesión {}): {} bytes, {} mensajes, {} ms de recepción", session.getId(),
+                received.bytes(), received.messages(), received.durationNanos() / 1_000_000);
+        if (received.bytes() == sentBytes) {
+            LOGGER.info("   ✅ Bytes: coinciden ({})", sentBytes);
+        } else {
+            LOGGER.warn("   ❌ Bytes: enviados {}, recibidos {} (diferencia {})", sentBytes, received.bytes(),
+                    sentBytes - received.bytes());
+        }
+        if (checksum != null && received.hasChecksum()) {
+            if (received.crc32c() == checksum.getValue()) {
+                LOGGER.info("   ✅ CRC32C: coincide ({})", Long.toHexString(received.crc32c()));
+            } else {
+                LOGGER.warn("   ❌ CRC32C: enviado {}, recibido {}", Long.toHexString(checksum.getValue()),
+                        Long.toHexString(received.crc32c()));
+            }
+        } else if (checksum != null) {
+            LOGGER.info("   CRC32C: el receptor no lo calculó (receiver.ack.checksum=false).");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.lab.sender;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The receiver's reply to END: bytes, messages and receive duration as it
+ * saw them, END marker included, plus an optional CRC32C of the stream.
+ * Text codecs get a {@code SUMMARY bytes=<n> messages=<n> durationNanos=<n> [crc32c=<hex>]}
+ * line, the binary codec a {@link Frame#TYPE_SUMMARY} frame with four longs.
+ * The receiver builds it in {@code com.lab.receiver.CompletionSummary}.
+ */
+public record CompletionSummary(long bytes, long messages, long durationNanos, long crc32c) {
+
+    public static final long NO_CHECKSUM = -1;
+
+    private static final String LINE_PREFIX = "SUMMARY ";
+
+    /**
+     * Parses a summary line, or returns {@code null} if the line is something else.
+     */
+    public static CompletionSummary fromLine(String line) {
+        if (!line.startsWith(LINE_PREFIX)) {
+            return null;
+        }
+        long bytes = -1;
+        long messages = -1;
+        long durationNanos = -1;
+        long crc32c = NO_CHECKSUM;
+        for (String field : line.substring(LINE_PREFIX.length()).trim().split(" ")) {
+            int separator = field.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            String value = field.substring(separator + 1);
+            switch (field.substring(0, separator)) {
+                case "bytes" -> bytes = Long.parseLong(value);
+                case "messages" -> messages = Long.parseLong(value);
+                case "durationNanos" -> durationNanos = Long.parseLong(value);
+                case "crc32c" -> crc32c = Long.parseLong(value, 16);
+                default -> {
+                    // Campo desconocido: se ignora para no romper con receptores más nuevos.
+                }
+            }
+        }
+        return new CompletionSummary(bytes, messages, durationNanos, crc32c);
+    }
+
+    /**
+     * Reads a {@link Frame#TYPE_SUMMARY} frame, or returns {@code null} for any other frame.
+     */
+    public static CompletionSummary fromFrame(Frame frame) {
+        if (frame.type() != Frame.TYPE_SUMMARY || frame.payload().length < 4 * Long.BYTES) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.wrap(frame.payload());
+        return new CompletionSummary(payload.getLong(), payload.getLong(), payload.getLong(), payload.getLong());
+    }
+
+    public boolean hasChecksum() {
+        return crc32c != NO_CHECKSUM;
+    }
+}
@@ -0,0 +1,200 @@
+package com.lab.sender;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.file.DefaultFileRegion;
+import org.apache.mina.core.future.ConnectFuture;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.transport.socket.nio.NioSocketConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File mode ({@code -Dsender.mode=file -Dsender.file=...}): streams one file
+ * over the binary frame protocol. An ANNOUNCE frame carries the file length,
+ * then every chunk goes as a DATA frame and an END frame closes the stream.
+ * <p>
+ * With {@code ZERO_COPY} each DATA frame is a 21-byte header {@link IoBuffer}
+ * followed by a {@link DefaultFileRegion}, which MINA writes with
+ * {@code FileChannel.transferTo}: the file bytes never enter the JVM heap.
+ * {@code BUFFERED} reads each chunk into a heap {@code IoBuffer} instead,
+ * for comparison. Both produce the same bytes on the wire.
+ * <p>
+ * The transfer ends when the receiver's {@link CompletionSummary} arrives.
+ * The file is closed only after the connector is disposed, so a region still
+ * queued on an aborted session never reads from a closed channel.
+ * With {@code sender.ack.checksum} the ZERO_COPY mode reads every chunk a
+ * second time to feed the CRC32C, so leave it off when measuring.
+ */
+public class FileSender {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSender.class);
+    private static final long CONNECT_TIMEOUT = 30000;
+
+    private final SenderSettings settings;
+
+    public FileSender(SenderSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Sends the file and blocks until the receiver confirms it (or the ack times out).
+     */
+    public void run() {
+        if (settings.getFile() == null) {
+            LOGGER.error("🔥 Falta -Dsender.file=<ruta> para el modo FILE.");
+            return;
+        }
+        if (settings.getCodec() != SenderSettings.Codec.BINARY) {
+            LOGGER.info("   -> El modo FILE usa frames binarios: codec {} ignorado.", settings.getCodec());
+            settings.setCodec(SenderSettings.Codec.BINARY);
+        }
+        Path path = Path.of(settings.getFile());
+        int chunkSize = Math.max(1, settings.getFileChunkSize());
+
+        NioSocketConnector connector = new NioSocketConnector();
+        connector.setConnectTimeoutMillis(CONNECT_TIMEOUT);
+        MinaSenderApplication.configureSessionConfig(connector, settings);
+        CoalescingFilter coalescer = MinaSenderApplication.configureFilterChain(connector, settings);
+        connector.setHandler(new MinaClientHandler());
+
+        // Se cierra después de dispose(): un FileRegion pendiente aún puede leer del fichero.
+        FileChannel file = null;
+        try {
+            file = FileChannel.open(path, StandardOpenOption.READ);
+            long fileLength = file.size();
+            LOGGER.info("🚀 Enviando fichero {} ({} bytes) -> {}:{}", path, fileLength, settings.getHost(), settings.getPort());
+            LOGGER.info("   -> Transferencia: {}, chunks de {} bytes", settings.getFileTransfer(), chunkSize);
+
+            ConnectFuture future = connector.connect(new InetSocketAddress(settings.getHost(), settings.getPort()));
+            future.awaitUninterruptibly();
+            if (!future.isConnected()) {
+                LOGGER.error("🔥 No se pudo conectar al servidor.");
+                return;
+            }
+            IoSession session = future.getSession();
+            // Los FileRegion no suman en getScheduledWriteBytes: la ventana los acota por número de mensajes.
+            WriteWindow window = WriteWindow.attach(session, settings.getWindowBytes(), settings.getWindowMessages(),
+                    settings.getJfrSampleEvery());
+            CompletionAck ack = CompletionAck.attach(session, settings.isAckChecksum());
+            ByteBuffer checksumChunk = ack.isChecksumEnabled() ? ByteBuffer.allocate(chunkSize) : null;
+            long startTime = System.nanoTime();
+
+            Frame announce = Frame.announce(fileLength, path.getFileName().toString());
+            session.write(announce);
+            ack.update(announce);
+            long wireBytes = announce.encodedLength();
+
+            long sequence = 0;
+            long position = 0;
+            while (position < fileLength && window.acquire()) {
+                int length = (int) Math.min(chunkSize, fileLength - position);
+                long timestamp = settings.isLatencyStamps() ? System.nanoTime() : 0;
+                if (settings.getFileTransfer() == SenderSettings.FileTransfer.ZERO_COPY) {
+                    IoBuffer header = header(length, sequence, timestamp);
+                    ack.update(header.buf());
+                    session.write(header);
+                    if (!window.acquire()) {
+                        break;
+                    }
+                    if (checksumChunk != null) {
+                        ack.update(read(file, position, checksumChunk.clear().limit(length)).flip());
+                    }
+                    session.write(new DefaultFileRegion(file, position, length));
+                } else {
+                    IoBuffer chunk = readChunk(file, position, length, sequence, timestamp);
+                    ack.update(chunk.buf());
+                    session.write(chunk);
+                }
+                wireBytes += Frame.HEADER_SIZE + length;
+                position += length;
+                sequence++;
+            }
+
+            Frame end = Frame.end(sequence);
+            session.write(end).awaitUninterruptibly();
+            ack.update(end);
+            wireBytes += end.encodedLength();
+            window.awaitDrained();
+            long durationNanos = ack.awaitCompletion(settings.getAckTimeoutMillis(), wireBytes) - startTime;
+            session.closeNow().awaitUninterruptibly();
+
+            double seconds = durationNanos / 1_000_000_000.0;
+            LOGGER.info("-------------------------------------------------");
+            LOGGER.info("📊 Envío de Fichero Completado ({}):", settings.getFileTransfer());
+            LOGGER.info("   Bytes del fichero: {} de {} ({} frames DATA)", position, fileLength, sequence);
+            LOGGER.info("   Bytes en el cable: {}", wireBytes);
+            LOGGER.info("   Tiempo Transcurrido: {} ms", durationNanos / 1_000_000);
+            LOGGER.info("   Velocidad: {} MB/s", String.format("%.2f", seconds > 0 ? (position / (1024.0 * 1024.0)) / seconds : 0));
+            LOGGER.info("   Esperas de ventana: {} ({} ms)", window.getWaits(), window.getWaitedNanos() / 1_000_000);
+            LOGGER.info("-------------------------------------------------");
+            if (coalescer != null) {
+                coalescer.logStats();
+            }
+        } catch (IOException e) {
+            LOGGER.error("🔥 Error leyendo el fichero {}: {}", path, e.getMessage(), e);
+        } catch (InterruptedException e) {
+            LOGGER.error("🔥 Envío de fichero interrumpido: {}", e.getMessage(), e);
+            Thread.currentThread().interrupt();
+        } finally {
+            connector.dispose(true);
+            if (coalescer != null) {
+                coalescer.dispose();
+            }
+            close(file, path);
+            LOGGER.info("🧹 Cliente finalizado.");
+        }
+    }
+
+    private static void close(FileChannel file, Path path) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ No se pudo cerrar el fichero {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * DATA frame header alone; the payload follows as a {@code FileRegion}.
+     */
+    private static IoBuffer header(int payloadLength, long sequence, long timestamp) {
+        IoBuffer header = IoBuffer.allocate(Frame.HEADER_SIZE, false);
+        FrameEncoder.putHeader(header, Frame.TYPE_DATA, payloadLength, sequence, timestamp);
+        return header.flip();
+    }
+
+    /**
+     * Complete DATA frame with the chunk copied from the file.
+     */
+    private static IoBuffer readChunk(FileChannel file, long position, int length, long sequence, long timestamp)
+            throws IOException {
+        IoBuffer buffer = IoBuffer.allocate(Frame.HEADER_SIZE + length, false);
+        FrameEncoder.putHeader(buffer, Frame.TYPE_DATA, length, sequence, timestamp);
+        read(file, position - Frame.HEADER_SIZE, buffer.buf());
+        return buffer.flip();
+    }
+
+    /**
+     * Fills {@code target} from the file; {@code position} is the file offset
+     * that corresponds to index 0 of {@code target}.
+     */
+    private static ByteBuffer read(FileChannel file, long position, ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            int read = file.read(target, position + target.position());
+            if (read < 0) {
+                throw new EOFException("File shrank while it was being sent");
+            }
+        }
+        return target;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lab.sender;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One message of the binary framed protocol. On the wire it is a fixed
+ * {@value #HEADER_SIZE}-byte big-endian header followed by the payload:
+ * <pre>
+ * int  length     payload bytes
+ * byte type       {@link #TYPE_DATA}, {@link #TYPE_END}, {@link #TYPE_ANNOUNCE}, {@link #TYPE_SUMMARY}
+ * long sequence   per-session message number
+ * long timestamp  sender System.nanoTime(), 0 when not stamped
+ * </pre>
+ * An {@link #TYPE_ANNOUNCE} frame opens a file transfer: its payload is the
+ * file length (big-endian long) followed by the UTF-8 file name. The
+ * receiver answers END with a {@link #TYPE_SUMMARY} frame ({@link CompletionSummary}).
+ * The receiver has the same layout in {@code com.lab.receiver.Frame}.
+ */
+public record Frame(byte type, long sequence, long timestamp, byte[] payload) {
+
+    public static final int HEADER_SIZE = 4 + 1 + 8 + 8;
+
+    public static final byte TYPE_DATA = 1;
+    public static final byte TYPE_END = 2;
+    public static final byte TYPE_ANNOUNCE = 3;
+    public static final byte TYPE_SUMMARY = 4;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    public static Frame data(long sequence, long timestamp, byte[] payload) {
+        return new Frame(TYPE_DATA, sequence, timestamp, payload);
+    }
+
+    public static Frame end(long sequence) {
+        return new Frame(TYPE_END, sequence, 0, EMPTY);
+    }
+
+    public static Frame announce(long fileLength, String fileName) {
+        byte[] name = fileName.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ByteBuffer.allocate(Long.BYTES + name.length).putLong(fileLength).put(name).array();
+        return new Frame(TYPE_ANNOUNCE, 0, 0, payload);
+    }
+
+    /**
+     * Bytes this frame takes on the wire.
+     */
+    public int encodedLength() {
+        return HEADER_SIZE + payload.length;
+    }
+}
@@ -0,0 +1,36 @@
+package com.lab.sender;
+
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolCodecFactory;
+import org.apache.mina.filter.codec.ProtocolDecoder;
+import org.apache.mina.filter.codec.ProtocolEncoder;
+
+/**
+ * Codec for the length-prefixed binary {@link Frame} protocol, the binary
+ * counterpart of {@code TextLineCodecFactory}.
+ */
+public class FrameCodecFactory implements ProtocolCodecFactory {
+
+    public static final int DEFAULT_MAX_PAYLOAD_SIZE = 1024 * 1024;
+
+    private final FrameEncoder encoder = new FrameEncoder();
+    private final FrameDecoder decoder;
+
+    public FrameCodecFactory() {
+        this(DEFAULT_MAX_PAYLOAD_SIZE);
+    }
+
+    public FrameCodecFactory(int maxPayloadSize) {
+        this.decoder = new FrameDecoder(maxPayloadSize);
+    }
+
+    @Override
+    public ProtocolEncoder getEncoder(IoSession session) {
+        return encoder;
+    }
+
+    @Override
+    public ProtocolDecoder getDecoder(IoSession session) {
+        return decoder;
+    }
+}
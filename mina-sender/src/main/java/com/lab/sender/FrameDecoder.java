@@ -0,0 +1,43 @@
+package com.lab.sender;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.CumulativeProtocolDecoder;
+import org.apache.mina.filter.codec.ProtocolDecoderException;
+import org.apache.mina.filter.codec.ProtocolDecoderOutput;
+
+/**
+ * Decodes {@link Frame}s directly from the cumulative {@link IoBuffer}:
+ * the length field is peeked without moving the position and nothing is
+ * consumed until the whole frame is available.
+ */
+public class FrameDecoder extends CumulativeProtocolDecoder {
+
+    private final int maxPayloadSize;
+
+    public FrameDecoder(int maxPayloadSize) {
+        this.maxPayloadSize = maxPayloadSize;
+    }
+
+    @Override
+    protected boolean doDecode(IoSession session, IoBuffer in, ProtocolDecoderOutput out) throws Exception {
+        if (in.remaining() < Frame.HEADER_SIZE) {
+            return false;
+        }
+        int length = in.getInt(in.position());
+        if (length < 0 || length > maxPayloadSize) {
+            throw new ProtocolDecoderException("Invalid frame length: " + length + " (max " + maxPayloadSize + ")");
+        }
+        if (in.remaining() < Frame.HEADER_SIZE + length) {
+            return false;
+        }
+        in.getInt();
+        byte type = in.get();
+        long sequence = in.getLong();
+        long timestamp = in.getLong();
+        byte[] payload = new byte[length];
+        in.get(payload);
+        out.write(new Frame(type, sequence, timestamp, payload));
+        return true;
+    }
+}
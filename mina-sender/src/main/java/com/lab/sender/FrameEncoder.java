@@ -0,0 +1,33 @@
+package com.lab.sender;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolEncoderAdapter;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+
+/**
+ * Writes a {@link Frame} as header plus payload into a single exactly-sized
+ * {@link IoBuffer}. No intermediate String or stream is involved.
+ */
+public class FrameEncoder extends ProtocolEncoderAdapter {
+
+    @Override
+    public void encode(IoSession session, Object message, ProtocolEncoderOutput out) throws Exception {
+        Frame frame = (Frame) message;
+        IoBuffer buffer = IoBuffer.allocate(frame.encodedLength(), false);
+        putHeader(buffer, frame.type(), frame.payload().length, frame.sequence(), frame.timestamp());
+        buffer.put(frame.payload());
+        buffer.flip();
+        out.write(buffer);
+    }
+
+    /**
+     * Writes only the header fields, for callers that send the payload separately.
+     */
+    public static void putHeader(IoBuffer buffer, byte type, int payloadLength, long sequence, long timestamp) {
+        buffer.putInt(payloadLength);
+        buffer.put(type);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+    }
+}
@@ -0,0 +1,256 @@
+package com.lab.sender;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.mina.core.future.ConnectFuture;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.transport.socket.nio.NioSocketConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load generator mode ({@code -Dsender.mode=load}): opens N sessions on a
+ * connector with M {@code NioProcessor} threads and drives each session from
+ * its own producer thread, either at a fixed aggregate rate (open-loop) or as
+ * fast as the sessions drain through their {@link WriteWindow} (closed-loop). Reports per-session and
+ * aggregate throughput at the end.
+ */
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long CONNECT_TIMEOUT = 30000;
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+    private final SenderSettings settings;
+
+    public LoadGenerator(SenderSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Runs the load and blocks until every session has finished.
+     */
+    public void run() {
+        int sessionCount = Math.max(1, settings.getSessions());
+        boolean openLoop = settings.getTargetRate() > 0;
+
+        LOGGER.info("🚀 Generador de carga MINA -> {}:{}", settings.getHost(), settings.getPort());
+        LOGGER.info("   -> Sesiones: {}, NioProcessors: {}, Codec: {}", sessionCount, settings.getProcessors(), settings.getCodec());
+        LOGGER.info("   -> Tamaño de mensaje: {} bytes, {}", settings.getMessageSize(), settings.getDurationSeconds() > 0
+                ? "duración " + settings.getDurationSeconds() + " s"
+                : settings.getMessages() + " mensajes en total");
+        LOGGER.info("   -> Modo: {}", openLoop
+                ? "open-loop a " + settings.getTargetRate() + " msg/s"
+                : "closed-loop (lo más rápido que permita la ventana)");
+        LOGGER.info("   -> Ventana de escritura por sesión: {} bytes / {} mensajes", settings.getWindowBytes(), settings.getWindowMessages());
+
+        NioSocketConnector connector = new NioSocketConnector(Math.max(1, settings.getProcessors()));
+        connector.setConnectTimeoutMillis(CONNECT_TIMEOUT);
+        MinaSenderApplication.configureSessionConfig(connector, settings);
+        CoalescingFilter coalescer = MinaSenderApplication.configureFilterChain(connector, settings);
+        connector.setHandler(new MinaClientHandler());
+
+        List<SessionLoad> loads = new ArrayList<>();
+        try {
+            for (int i = 0; i < sessionCount; i++) {
+                ConnectFuture future = connector.connect(new InetSocketAddress(settings.getHost(), settings.getPort()));
+                future.awaitUninterruptibly();
+                if (!future.isConnected()) {
+                    LOGGER.error("🔥 No se pudo conectar la sesión #{}.", i);
+                    return;
+                }
+                loads.add(new SessionLoad(i, future.getSession(), quotaFor(i, sessionCount), sessionCount));
+            }
+
+            List<Thread> producers = new ArrayList<>();
+            for (SessionLoad load : loads) {
+                Thread producer = new Thread(load, "load-producer-" + load.index);
+                producer.start();
+                producers.add(producer);
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            report(loads);
+            if (coalescer != null) {
+                coalescer.logStats();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.error("🔥 Generador de carga interrumpido: {}", e.getMessage(), e);
+            Thread.currentThread().interrupt();
+        } finally {
+            for (SessionLoad load : loads) {
+                load.session.closeNow().awaitUninterruptibly();
+            }
+            connector.dispose(true);
+            if (coalescer != null) {
+                coalescer.dispose();
+            }
+            LOGGER.info("🧹 Generador de carga finalizado.");
+        }
+    }
+
+    private long quotaFor(int index, int sessionCount) {
+        if (settings.getDurationSeconds() > 0) {
+            return Long.MAX_VALUE;
+        }
+        long base = settings.getMessages() / sessionCount;
+        return index < settings.getMessages() % sessionCount ? base + 1 : base;
+    }
+
+    private void report(List<SessionLoad> loads) {
+        long totalMessages = 0;
+        long totalBytes = 0;
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+
+        LOGGER.info("-------------------------------------------------");
+        LOGGER.info("📊 Resultado por Sesión:");
+        for (SessionLoad load : loads) {
+            long durationNanos = load.endNanos - load.startNanos;
+            LOGGER.info("   Sesión #{} (ID {}): {} mensajes, {} bytes, {} s, {} msg/s, {} MB/s, {} esperas de ventana ({} ms)",
+                    load.index, load.session.getId(), load.sent, load.bytes, seconds(durationNanos),
+                    rate(load.sent, durationNanos), megabytesPerSecond(load.bytes, durationNanos),
+                    load.window.getWaits(), load.window.getWaitedNanos() / 1_000_000);
+            totalMessages += load.sent;
+            totalBytes += load.bytes;
+            firstStart = Math.min(firstStart, load.startNanos);
+            lastEnd = Math.max(lastEnd, load.endNanos);
+        }
+        long wallNanos = lastEnd - firstStart;
+        LOGGER.info("📊 Agregado ({} sesiones):", loads.size());
+        LOGGER.info("   Mensajes Enviados: {}", totalMessages);
+        LOGGER.info("   Bytes Totales: {}", totalBytes);
+        LOGGER.info("   Tiempo Transcurrido: {} s", seconds(wallNanos));
+        LOGGER.info("   Velocidad: {} msg/s, {} MB/s", rate(totalMessages, wallNanos), megabytesPerSecond(totalBytes, wallNanos));
+        LOGGER.info("-------------------------------------------------");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000_000.0);
+    }
+
+    private static String rate(long count, long nanos) {
+        return String.format("%.0f", nanos > 0 ? count / (nanos / 1_000_000_000.0) : 0);
+    }
+
+    private static String megabytesPerSecond(long bytes, long nanos) {
+        return String.format("%.2f", nanos > 0 ? (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0) : 0);
+    }
+
+    /**
+     * Producer for one session. Only its own thread touches the counters
+     * until {@link Thread#join()} publishes them to the reporting thread.
+     */
+    private final class SessionLoad implements Runnable {
+
+        private final int index;
+        private final IoSession session;
+        private final WriteWindow window;
+        private final CompletionAck ack;
+        private final long quota;
+        private final long intervalNanos;
+        private final String textPayload;
+        private final byte[] binaryPayload;
+
+        private long sent;
+        private long bytes;
+        private long startNanos;
+        private long endNanos;
+
+        SessionLoad(int index, IoSession session, long quota, int sessionCount) {
+            this.index = index;
+            this.session = session;
+            this.window = WriteWindow.attach(session, settings.getWindowBytes(), settings.getWindowMessages(),
+                    settings.getJfrSampleEvery());
+            this.ack = CompletionAck.attach(session, settings.isAckChecksum());
+            this.quota = quota;
+            // Intervalo por sesión sin pasar por msg/s por sesión: con menos msg/s que sesiones daría 0.
+            long targetRate = settings.getTargetRate();
+            this.intervalNanos = targetRate > 0 ? sessionCount * 1_000_000_000L / targetRate : 0;
+            byte[] payload = new byte[Math.max(1, settings.getMessageSize())];
+            Arrays.fill(payload, (byte) 'x');
+            this.binaryPayload = payload;
+            this.textPayload = new String(payload, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public void run() {
+            boolean binary = settings.getCodec() == SenderSettings.Codec.BINARY;
+            boolean stamped = settings.isLatencyStamps();
+            long deadline = settings.getDurationSeconds() > 0
+                    ? System.nanoTime() + settings.getDurationSeconds() * 1_000_000_000L
+                    : Long.MAX_VALUE;
+            startNanos = System.nanoTime();
+
+            long sequence = 0;
+            while (sequence < quota && System.nanoTime() < deadline) {
+                long sendAt = startNanos + sequence * intervalNanos;
+                if (intervalNanos > 0) {
+                    waitUntil(sendAt);
+                }
+                // Closed-loop: la ventana marca el ritmo. Open-loop: solo acota la memoria.
+                if (!acquireWindow()) {
+                    break;
+                }
+                // En open-loop se marca la hora prevista para no ocultar la espera (coordinated omission).
+                long timestamp = stamped ? (intervalNanos > 0 ? sendAt : System.nanoTime()) : 0;
+                if (binary) {
+                    Frame frame = Frame.data(sequence, timestamp, binaryPayload);
+                    session.write(frame);
+                    ack.update(frame);
+                    bytes += frame.encodedLength();
+                } else {
+                    String line = stamped ? sequence + ";" + timestamp + ";" + textPayload : textPayload;
+                    session.write(line);
+                    ack.update(line);
+                    bytes += line.length() + 1;
+                }
+                sequence++;
+            }
+            sent = sequence;
+
+            long endBytes;
+            WriteFuture last;
+            if (binary) {
+                Frame end = Frame.end(sequence);
+                last = session.write(end);
+                ack.update(end);
+                endBytes = end.encodedLength();
+            } else {
+                last = session.write(MinaSenderApplication.END_OF_TRANSMISSION);
+                ack.update(MinaSenderApplication.END_OF_TRANSMISSION);
+                endBytes = MinaSenderApplication.END_OF_TRANSMISSION.length() + 1;
+            }
+            last.awaitUninterruptibly();
+            // Fin de la sesión: cuando el receptor confirma, no cuando el END sale del socket.
+            endNanos = ack.awaitCompletion(settings.getAckTimeoutMillis(), bytes + endBytes);
+        }
+
+        private boolean acquireWindow() {
+            try {
+                return window.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void waitUntil(long deadlineNanos) {
+            long remaining;
+            while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+                if (remaining > SPIN_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+}
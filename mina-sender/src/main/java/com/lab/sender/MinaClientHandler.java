@@ -4,6 +4,7 @@ import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.core.session.IoSessionConfig;
+import org.apache.mina.transport.socket.SocketSessionConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,7 +31,10 @@ public class MinaClientHandler extends IoHandlerAdapter {
         LOGGER.info("   -> Min Read Buffer Size (MINA app): {} bytes", config.getMinReadBufferSize());
         LOGGER.info("   -> Max Read Buffer Size (MINA app): {} bytes", config.getMaxReadBufferSize());
         LOGGER.info("   -> Throughput Calculation Interval: {} seconds", config.getThroughputCalculationInterval());
-        LOGGER.info("   -> Nota: Los buffers TCP del Socket real (SO_SNDBUF/SO_RCVBUF) usarán los defaults del SO.");
+        if (config instanceof SocketSessionConfig socketConfig) {
+            LOGGER.info("   -> Send Buffer (SO_SNDBUF):   {} bytes", socketConfig.getSendBufferSize());
+            LOGGER.info("   -> Receive Buffer (SO_RCVBUF): {} bytes", socketConfig.getReceiveBufferSize());
+        }
         LOGGER.info("-------------------------------------------------");
 
         LOGGER.info("CLIENT HANDLER - ℹ️ Sesión MINA abierta (ID: {}).", session.getId());
@@ -42,8 +46,11 @@ public class MinaClientHandler extends IoHandlerAdapter {
 
     @Override
     public void messageReceived(IoSession session, Object message) throws Exception {
+        CompletionAck ack = CompletionAck.of(session);
+        if (ack != null && ack.onMessage(message)) {
+            return; // Resumen de fin de transmisión: lo registra quien espera el ack
+        }
         LOGGER.info("CLIENT HANDLER - 💬 Mensaje recibido del servidor: {}", message.toString());
-        // El cliente no espera respuestas activamente en este escenario.
     }
 
     @Override
@@ -55,16 +62,32 @@ public class MinaClientHandler extends IoHandlerAdapter {
     @Override
     public void sessionClosed(IoSession session) throws Exception {
         LOGGER.info("CLIENT HANDLER - 🚪 Sesión MINA cerrada (ID: {}).", session.getId());
+        WriteWindow window = WriteWindow.of(session);
+        if (window != null) {
+            window.onSessionClosed(); // Despierta a productores bloqueados
+        }
+        CompletionAck ack = CompletionAck.of(session);
+        if (ack != null) {
+            ack.onSessionClosed(); // Ya no llegará el resumen
+        }
     }
 
     @Override
     public void messageSent(IoSession session, Object message) throws Exception {
+        WriteWindow window = WriteWindow.of(session);
+        if (window != null) {
+            window.onMessageSent();
+        }
+        // Log por mensaje solo en DEBUG: a INFO domina el coste del envío.
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
         if (message instanceof IoBuffer ioBuffer) { // Usar pattern matching
-            LOGGER.info("CLIENT HANDLER - ✈️  MINA ha procesado el envío de: IoBuffer ({} bytes restantes en el buffer enviado)", ioBuffer.remaining());
+            LOGGER.debug("CLIENT HANDLER - ✈️  MINA ha procesado el envío de: IoBuffer ({} bytes restantes en el buffer enviado)", ioBuffer.remaining());
         } else if (message != null) {
-            LOGGER.info("CLIENT HANDLER - ✈️  MINA ha procesado el envío de: {}", message.toString());
+            LOGGER.debug("CLIENT HANDLER - ✈️  MINA ha procesado el envío de: {}", message.toString());
         } else {
-            LOGGER.info("CLIENT HANDLER - ✈️  MINA ha procesado el envío de un mensaje nulo.");
+            LOGGER.debug("CLIENT HANDLER - ✈️  MINA ha procesado el envío de un mensaje nulo.");
         }
     }
 }
\ No newline at end of file
@@ -4,10 +4,11 @@ import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 
 import org.apache.mina.core.future.ConnectFuture;
-import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolCodecFactory;
 import org.apache.mina.filter.codec.ProtocolCodecFilter;
 import org.apache.mina.filter.codec.textline.TextLineCodecFactory;
+import org.apache.mina.transport.socket.SocketSessionConfig;
 import org.apache.mina.transport.socket.nio.NioSocketConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,32 +16,39 @@ import org.slf4j.LoggerFactory;
 public class MinaSenderApplication {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MinaSenderApplication.class);
-    private static final String HOST = "localhost";
-    private static final int PORT = 12345;
     private static final int MESSAGE_COUNT = 100000;
     private static final long CONNECT_TIMEOUT = 30000;
+    static final String END_OF_TRANSMISSION = "END_OF_TRANSMISSION";
 
     public static void main(String[] args) {
+        SenderSettings settings = SenderSettings.fromSystemProperties();
+        if (settings.getMode() == SenderSettings.Mode.LOAD) {
+            new LoadGenerator(settings).run();
+            return;
+        }
+        if (settings.getMode() == SenderSettings.Mode.FILE) {
+            new FileSender(settings).run();
+            return;
+        }
         LOGGER.info("🚀 Iniciando Cliente TCP Apache MINA (Enviando {} mensajes pequeños)...", MESSAGE_COUNT);
+        LOGGER.info("   -> Codec: {}", settings.getCodec());
+        if (settings.isLatencyStamps()) {
+            LOGGER.info("   -> Modo latencia: cada mensaje lleva su secuencia y nanoTime de envío.");
+        }
 
         NioSocketConnector connector = new NioSocketConnector();
         connector.setConnectTimeoutMillis(CONNECT_TIMEOUT);
+        configureSessionConfig(connector, settings);
 
-        connector.getFilterChain().addLast("codec", new ProtocolCodecFilter(new TextLineCodecFactory(StandardCharsets.UTF_8)));
+        CoalescingFilter coalescer = configureFilterChain(connector, settings);
         // Opcional: añadir el logger para ver más detalle
         // connector.getFilterChain().addLast("logger", new LoggingFilter());
 
-        // Usar un handler simple inline en lugar de MinaClientHandler
-        connector.setHandler(new IoHandlerAdapter() {
-            @Override
-            public void exceptionCaught(IoSession session, Throwable cause) throws Exception {
-                LOGGER.error("❌ Error en MINA: {}", cause.getMessage());
-                session.closeNow();
-            }
-        });
+        // MinaClientHandler avisa a la ventana de escritura en cada messageSent
+        connector.setHandler(new MinaClientHandler());
 
         try {
-            ConnectFuture future = connector.connect(new InetSocketAddress(HOST, PORT));
+            ConnectFuture future = connector.connect(new InetSocketAddress(settings.getHost(), settings.getPort()));
             future.awaitUninterruptibly();
 
             if (!future.isConnected()) {
@@ -49,37 +57,45 @@ public class MinaSenderApplication {
             }
 
             IoSession session = future.getSession();
+            WriteWindow window = WriteWindow.attach(session, settings.getWindowBytes(), settings.getWindowMessages(),
+                    settings.getJfrSampleEvery());
+            CompletionAck ack = CompletionAck.attach(session, settings.isAckChecksum());
             LOGGER.info("🔗 Conexión establecida. Sesión ID: {}. Enviando mensajes...", session.getId());
+            LOGGER.info("   -> Ventana de escritura: {} bytes / {} mensajes", settings.getWindowBytes(), settings.getWindowMessages());
             long startTime = System.nanoTime();
 
             String payload = "Este es un mensaje de prueba con algo de contenido para rellenar.";
-            for (int i = 0; i < MESSAGE_COUNT; i++) {
-                String message = payload + " #" + i;
-                session.write(message);
+            SendResult sent = (settings.getCodec() == SenderSettings.Codec.BINARY)
+                    ? sendFrames(session, window, ack, payload, settings)
+                    : sendTextLines(session, window, ack, payload, settings);
+            long totalBytes = sent.bytes();
+            if (sent.messages() < MESSAGE_COUNT) {
+                LOGGER.warn("⚠️ Envío abortado: la sesión se cerró tras {} de {} mensajes.", sent.messages(), MESSAGE_COUNT);
             }
-
-            // Enviar mensaje final para indicar que terminamos
-            session.write("END_OF_TRANSMISSION").awaitUninterruptibly();
             
-            // Damos un pequeño margen para el último envío y luego cerramos.
-            Thread.sleep(2000);
-            LOGGER.info("Todos los mensajes han sido enviados a la cola. Cerrando sesión...");
+            // En lugar de un margen fijo, esperamos a que la cola de escritura se vacíe de verdad.
+            window.awaitDrained();
+            LOGGER.info("Todos los mensajes han salido al socket (esperas de ventana: {}, {} ms). Esperando el resumen del receptor...",
+                    window.getWaits(), window.getWaitedNanos() / 1_000_000);
+            // El tiempo acaba cuando el receptor confirma que lo ha leído todo, no cuando sale del socket.
+            long endTime = ack.awaitCompletion(settings.getAckTimeoutMillis(), totalBytes);
 
             session.closeNow().awaitUninterruptibly();
 
-            long endTime = System.nanoTime();
             long duration = endTime - startTime;
             double durationSeconds = duration / 1_000_000_000.0;
-            long totalBytesApprox = (long) MESSAGE_COUNT * (payload.length() + 8);
-            double mbps = (durationSeconds > 0) ? (totalBytesApprox * 8 / (1024.0 * 1024.0)) / durationSeconds : 0;
+            double mbps = (durationSeconds > 0) ? (totalBytes * 8 / (1024.0 * 1024.0)) / durationSeconds : 0;
 
             LOGGER.info("-------------------------------------------------");
             LOGGER.info("📊 Envío de Mensajes Pequeños Completado:");
-            LOGGER.info("   Mensajes Enviados: {}", MESSAGE_COUNT);
-            LOGGER.info("   Bytes Totales (aprox): {}", totalBytesApprox);
+            LOGGER.info("   Mensajes Enviados: {}", sent.messages());
+            LOGGER.info("   Bytes Totales: {}", totalBytes);
             LOGGER.info("   Tiempo Transcurrido: {} ms ({} s)", duration / 1_000_000, String.format("%.3f", durationSeconds));
             LOGGER.info("   Velocidad: {} MB/s ({} Mbps)", String.format("%.2f", mbps/8), String.format("%.2f", mbps));
             LOGGER.info("-------------------------------------------------");
+            if (coalescer != null) {
+                coalescer.logStats();
+            }
 
         } catch (InterruptedException e) {
             LOGGER.error("🔥 Error de interrupción durante el envío: {}", e.getMessage(), e);
@@ -91,7 +107,108 @@ public class MinaSenderApplication {
                 LOGGER.info("Cliente: Limpiando y disponiendo del conector...");
                 connector.dispose(true);
             }
+            if (coalescer != null) {
+                coalescer.dispose();
+            }
             LOGGER.info("🧹 Cliente finalizado.");
         }
     }
+
+    /**
+     * Applies the socket and read-buffer options of the settings; zero
+     * values keep the OS/MINA defaults.
+     */
+    static void configureSessionConfig(NioSocketConnector connector, SenderSettings settings) {
+        SocketSessionConfig config = connector.getSessionConfig();
+        if (settings.getSendBufferSize() > 0) {
+            config.setSendBufferSize(settings.getSendBufferSize());
+        }
+        if (settings.getReceiveBufferSize() > 0) {
+            config.setReceiveBufferSize(settings.getReceiveBufferSize());
+        }
+        if (settings.getReadBufferSize() > 0) {
+            config.setReadBufferSize(settings.getReadBufferSize());
+        }
+    }
+
+    /**
+     * Adds the codec and, if enabled, the {@link CoalescingFilter} between the
+     * codec and the socket. Returns the coalescing filter or {@code null}.
+     */
+    static CoalescingFilter configureFilterChain(NioSocketConnector connector, SenderSettings settings) {
+        connector.getFilterChain().addLast("codec", new ProtocolCodecFilter(codecFactory(settings)));
+        if (settings.getCoalesceBytes() <= 0) {
+            return null;
+        }
+        CoalescingFilter coalescer = new CoalescingFilter(settings.getCoalesceBytes(), settings.getCoalesceMaxDelayMicros());
+        connector.getFilterChain().addBefore("codec", "coalescer", coalescer);
+        LOGGER.info("   -> Coalescing: lotes de {} bytes, retardo máximo {} µs", settings.getCoalesceBytes(),
+                settings.getCoalesceMaxDelayMicros());
+        return coalescer;
+    }
+
+    /**
+     * Codec matching {@link SenderSettings#getCodec()}.
+     */
+    static ProtocolCodecFactory codecFactory(SenderSettings settings) {
+        return (settings.getCodec() == SenderSettings.Codec.BINARY)
+                ? new FrameCodecFactory()
+                : new TextLineCodecFactory(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Messages actually written before the END marker (fewer than
+     * {@code MESSAGE_COUNT} if the session closed) and the bytes sent, END included.
+     */
+    private record SendResult(int messages, long bytes) {
+    }
+
+    /**
+     * Sends the messages as text lines. The messages are ASCII, so one char
+     * is one byte plus the {@code \n}.
+     */
+    private static SendResult sendTextLines(IoSession session, WriteWindow window, CompletionAck ack, String payload,
+            SenderSettings settings) throws InterruptedException {
+        long totalBytes = 0;
+        int i = 0;
+        for (; i < MESSAGE_COUNT && window.acquire(); i++) {
+            String message = payload + " #" + i;
+            if (settings.isLatencyStamps()) {
+                // El receptor usa System.nanoTime() del mismo host para calcular la latencia.
+                message = i + ";" + System.nanoTime() + ";" + message;
+            }
+            session.write(message);
+            ack.update(message);
+            totalBytes += message.length() + 1;
+        }
+
+        // Enviar mensaje final para indicar que terminamos
+        session.write(END_OF_TRANSMISSION).awaitUninterruptibly();
+        ack.update(END_OF_TRANSMISSION);
+        return new SendResult(i, totalBytes + END_OF_TRANSMISSION.length() + 1);
+    }
+
+    /**
+     * Sends the messages as binary frames. The payload is encoded once; the
+     * sequence number travels in the header.
+     */
+    private static SendResult sendFrames(IoSession session, WriteWindow window, CompletionAck ack, String payload,
+            SenderSettings settings) throws InterruptedException {
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        long totalBytes = 0;
+        int i = 0;
+        for (; i < MESSAGE_COUNT && window.acquire(); i++) {
+            long timestamp = settings.isLatencyStamps() ? System.nanoTime() : 0;
+            Frame frame = Frame.data(i, timestamp, payloadBytes);
+            session.write(frame);
+            ack.update(frame);
+            totalBytes += frame.encodedLength();
+        }
+
+        // La secuencia del END es el número de frames DATA que salieron de verdad.
+        Frame end = Frame.end(i);
+        session.write(end).awaitUninterruptibly();
+        ack.update(end);
+        return new SendResult(i, totalBytes + end.encodedLength());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,358 @@
+package com.lab.sender;
+
+/**
+ * Runtime options of the sender, read from {@code -Dsender.*} system
+ * properties so the same jar can run every test scenario.
+ */
+public class SenderSettings {
+
+    /**
+     * Wire format used for the messages.
+     */
+    public enum Codec {
+        /** UTF-8 newline-delimited strings ({@code TextLineCodecFactory}). */
+        TEXT,
+        /** Length-prefixed binary frames ({@link FrameCodecFactory}). */
+        BINARY
+    }
+
+    /**
+     * What the sender does once started.
+     */
+    public enum Mode {
+        /** One session sending a fixed batch of small messages (the original test). */
+        SINGLE,
+        /** Multi-session load generator, see {@link LoadGenerator}. */
+        LOAD,
+        /** Streams one file as binary frames, see {@link FileSender}. */
+        FILE
+    }
+
+    /**
+     * How {@link FileSender} moves the file bytes to the socket.
+     */
+    public enum FileTransfer {
+        /** {@code DefaultFileRegion}: the kernel copies file pages to the socket ({@code transferTo}). */
+        ZERO_COPY,
+        /** File chunks read into heap {@code IoBuffer}s, for comparison. */
+        BUFFERED
+    }
+
+    private Mode mode = Mode.SINGLE;
+    private String host = "localhost";
+    private int port = 12345;
+    private boolean latencyStamps;
+    private Codec codec = Codec.TEXT;
+    private long windowBytes = 4L * 1024 * 1024;
+    private int windowMessages = 65536;
+    private int coalesceBytes;
+    private long coalesceMaxDelayMicros = 1000;
+    private int jfrSampleEvery = 1024;
+    private int sendBufferSize;
+    private int receiveBufferSize;
+    private int readBufferSize;
+    private long ackTimeoutMillis = 30000;
+    private boolean ackChecksum;
+
+    // Envío de fichero (modo FILE)
+    private String file;
+    private FileTransfer fileTransfer = FileTransfer.ZERO_COPY;
+    private int fileChunkSize = 65536;
+
+    // Generador de carga (modo LOAD)
+    private int sessions = 4;
+    private int processors = Runtime.getRuntime().availableProcessors();
+    private int messageSize = 128;
+    private long messages = 1_000_000;
+    private long durationSeconds;
+    private long targetRate;
+
+    /**
+     * Builds the settings from the JVM system properties, using the
+     * defaults for anything not given.
+     */
+    public static SenderSettings fromSystemProperties() {
+        SenderSettings settings = new SenderSettings();
+        settings.setMode(Mode.valueOf(System.getProperty("sender.mode", Mode.SINGLE.name()).toUpperCase()));
+        settings.setHost(System.getProperty("sender.host", settings.getHost()));
+        settings.setPort(Integer.getInteger("sender.port", settings.getPort()));
+        settings.setLatencyStamps(Boolean.getBoolean("sender.latency"));
+        settings.setCodec(Codec.valueOf(System.getProperty("sender.codec", Codec.TEXT.name()).toUpperCase()));
+        settings.setWindowBytes(Long.getLong("sender.window.bytes", settings.getWindowBytes()));
+        settings.setWindowMessages(Integer.getInteger("sender.window.messages", settings.getWindowMessages()));
+        settings.setCoalesceBytes(Integer.getInteger("sender.coalesce.bytes", settings.getCoalesceBytes()));
+        settings.setCoalesceMaxDelayMicros(Long.getLong("sender.coalesce.maxDelayMicros", settings.getCoalesceMaxDelayMicros()));
+        settings.setSendBufferSize(Integer.getInteger("sender.so.sndbuf", settings.getSendBufferSize()));
+        settings.setReceiveBufferSize(Integer.getInteger("sender.so.rcvbuf", settings.getReceiveBufferSize()));
+        settings.setReadBufferSize(Integer.getInteger("sender.readBufferSize", settings.getReadBufferSize()));
+        settings.setAckTimeoutMillis(Long.getLong("sender.ack.timeoutMillis", settings.getAckTimeoutMillis()));
+        settings.setAckChecksum(Boolean.getBoolean("sender.ack.checksum"));
+        settings.setFile(System.getProperty("sender.file"));
+        settings.setFileTransfer(FileTransfer.valueOf(
+                System.getProperty("sender.file.transfer", FileTransfer.ZERO_COPY.name()).toUpperCase()));
+        settings.setFileChunkSize(Integer.getInteger("sender.file.chunkSize", settings.getFileChunkSize()));
+        settings.setJfrSampleEvery(Integer.getInteger("sender.jfr.sampleEvery", settings.getJfrSampleEvery()));
+        settings.setSessions(Integer.getInteger("sender.sessions", settings.getSessions()));
+        settings.setProcessors(Integer.getInteger("sender.processors", settings.getProcessors()));
+        settings.setMessageSize(Integer.getInteger("sender.messageSize", settings.getMessageSize()));
+        settings.setMessages(Long.getLong("sender.messages", settings.getMessages()));
+        settings.setDurationSeconds(Long.getLong("sender.durationSeconds", settings.getDurationSeconds()));
+        settings.setTargetRate(Long.getLong("sender.rate", settings.getTargetRate()));
+        return settings;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Whether each message carries its sequence and {@code System.nanoTime()}
+     * so the receiver can measure one-way latency and sequence gaps. Text lines
+     * get a {@code <sequence>;<nanoTime>;} prefix, binary frames use the header.
+     */
+    public boolean isLatencyStamps() {
+        return latencyStamps;
+    }
+
+    public void setLatencyStamps(boolean latencyStamps) {
+        this.latencyStamps = latencyStamps;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Maximum bytes scheduled for writing per session before producers wait (0 = unbounded).
+     */
+    public long getWindowBytes() {
+        return windowBytes;
+    }
+
+    public void setWindowBytes(long windowBytes) {
+        this.windowBytes = windowBytes;
+    }
+
+    /**
+     * Maximum messages scheduled for writing per session before producers wait (0 = unbounded).
+     */
+    public int getWindowMessages() {
+        return windowMessages;
+    }
+
+    public void setWindowMessages(int windowMessages) {
+        this.windowMessages = windowMessages;
+    }
+
+    /**
+     * Batch size of the {@link CoalescingFilter} (for example 65536); 0 disables coalescing.
+     */
+    public int getCoalesceBytes() {
+        return coalesceBytes;
+    }
+
+    public void setCoalesceBytes(int coalesceBytes) {
+        this.coalesceBytes = coalesceBytes;
+    }
+
+    /**
+     * Longest time a coalesced message may wait for its batch to fill.
+     */
+    public long getCoalesceMaxDelayMicros() {
+        return coalesceMaxDelayMicros;
+    }
+
+    public void setCoalesceMaxDelayMicros(long coalesceMaxDelayMicros) {
+        this.coalesceMaxDelayMicros = coalesceMaxDelayMicros;
+    }
+
+    /**
+     * SO_SNDBUF requested for the sessions; 0 keeps the OS default.
+     */
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    /**
+     * SO_RCVBUF requested for the sessions; 0 keeps the OS default.
+     */
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    /**
+     * Initial MINA read buffer size; 0 keeps the MINA default.
+     */
+    public int getReadBufferSize() {
+        return readBufferSize;
+    }
+
+    public void setReadBufferSize(int readBufferSize) {
+        this.readBufferSize = readBufferSize;
+    }
+
+    /**
+     * Path of the file sent in {@link Mode#FILE}.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public FileTransfer getFileTransfer() {
+        return fileTransfer;
+    }
+
+    public void setFileTransfer(FileTransfer fileTransfer) {
+        this.fileTransfer = fileTransfer;
+    }
+
+    /**
+     * How long to wait after END for the receiver's {@link CompletionSummary}
+     * (0 = do not wait and stop the clock when the write queue drains).
+     */
+    public long getAckTimeoutMillis() {
+        return ackTimeoutMillis;
+    }
+
+    public void setAckTimeoutMillis(long ackTimeoutMillis) {
+        this.ackTimeoutMillis = ackTimeoutMillis;
+    }
+
+    /**
+     * Whether to compute a CRC32C of every byte sent and compare it with the
+     * receiver's ({@code receiver.ack.checksum} must be on too).
+     */
+    public boolean isAckChecksum() {
+        return ackChecksum;
+    }
+
+    public void setAckChecksum(boolean ackChecksum) {
+        this.ackChecksum = ackChecksum;
+    }
+
+    /**
+     * Payload bytes per DATA frame in {@link Mode#FILE}; must fit the
+     * receiver's {@code receiver.max-message-size}.
+     */
+    public int getFileChunkSize() {
+        return fileChunkSize;
+    }
+
+    public void setFileChunkSize(int fileChunkSize) {
+        this.fileChunkSize = fileChunkSize;
+    }
+
+    /**
+     * One {@code WriteScheduled}/{@code WriteCompleted} JFR event per this many writes (0 = never).
+     */
+    public int getJfrSampleEvery() {
+        return jfrSampleEvery;
+    }
+
+    public void setJfrSampleEvery(int jfrSampleEvery) {
+        this.jfrSampleEvery = jfrSampleEvery;
+    }
+
+    /**
+     * Number of concurrent sessions, each driven by its own producer thread.
+     */
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Number of {@code NioProcessor} threads of the connector.
+     */
+    public int getProcessors() {
+        return processors;
+    }
+
+    public void setProcessors(int processors) {
+        this.processors = processors;
+    }
+
+    /**
+     * Payload bytes per message.
+     */
+    public int getMessageSize() {
+        return messageSize;
+    }
+
+    public void setMessageSize(int messageSize) {
+        this.messageSize = messageSize;
+    }
+
+    /**
+     * Total messages across all sessions; ignored when a duration is set.
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    public void setMessages(long messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * Run for this many seconds instead of a fixed message count (0 = use the count).
+     */
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Aggregate target rate in messages per second (open-loop);
+     * 0 sends as fast as the sessions drain (closed-loop).
+     */
+    public long getTargetRate() {
+        return targetRate;
+    }
+
+    public void setTargetRate(long targetRate) {
+        this.targetRate = targetRate;
+    }
+}
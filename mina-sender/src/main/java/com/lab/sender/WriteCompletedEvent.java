@@ -0,0 +1,34 @@
+package com.lab.sender;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a write that left the session's queue ({@code messageSent}),
+ * sampled one in {@code sender.jfr.sampleEvery} writes.
+ */
+@Name("com.lab.sender.WriteCompleted")
+@Label("Write Completed")
+@Category({ "Lab Perf", "Sender" })
+@Description("Escritura completada en el socket (muestreada)")
+@StackTrace(false)
+public class WriteCompletedEvent extends Event {
+
+    @Label("Session Id")
+    long sessionId;
+
+    @Label("Scheduled Bytes")
+    @DataAmount
+    long scheduledBytes;
+
+    @Label("Scheduled Messages")
+    int scheduledMessages;
+
+    @Label("Sample Every")
+    int sampleEvery;
+}
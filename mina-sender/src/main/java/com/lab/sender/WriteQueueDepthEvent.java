@@ -0,0 +1,40 @@
+package com.lab.sender;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JFR event with the write queue depth of every open session,
+ * emitted by the hook registered in {@link WriteWindow}.
+ */
+@Name("com.lab.sender.WriteQueueDepth")
+@Label("Write Queue Depth")
+@Category({ "Lab Perf", "Sender" })
+@Description("Profundidad de la cola de escritura por sesión")
+@Period("1 s")
+@StackTrace(false)
+public class WriteQueueDepthEvent extends Event {
+
+    @Label("Session Id")
+    long sessionId;
+
+    @Label("Scheduled Bytes")
+    @DataAmount
+    long scheduledBytes;
+
+    @Label("Scheduled Messages")
+    int scheduledMessages;
+
+    @Label("Window Bytes")
+    @DataAmount
+    long windowBytes;
+
+    @Label("Window Messages")
+    int windowMessages;
+}
@@ -0,0 +1,36 @@
+package com.lab.sender;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR duration event: a producer blocked in {@link WriteWindow#acquire()}
+ * because the session's write queue was full. Only committed above the
+ * threshold (1 ms by default, configurable in the {@code .jfc}).
+ */
+@Name("com.lab.sender.WriteStall")
+@Label("Write Stall")
+@Category({ "Lab Perf", "Sender" })
+@Description("Productor bloqueado esperando hueco en la ventana de escritura")
+@Threshold("1 ms")
+@StackTrace(false)
+public class WriteStallEvent extends Event {
+
+    @Label("Session Id")
+    long sessionId;
+
+    @Label("Scheduled Bytes")
+    @Description("Bytes en la cola de escritura al empezar la espera")
+    @DataAmount
+    long scheduledBytes;
+
+    @Label("Scheduled Messages")
+    @Description("Mensajes en la cola de escritura al empezar la espera")
+    int scheduledMessages;
+}
@@ -0,0 +1,206 @@
+package com.lab.sender;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Bounded in-flight window for one session. Producers call
+ * {@link #acquire()} before each {@code session.write}; it blocks while the
+ * session's scheduled write bytes or messages are at the limit. The
+ * {@code messageSent} callback of {@link MinaClientHandler} wakes them up,
+ * so memory stays bounded and throughput follows the real socket drain.
+ * <p>
+ * The window also emits the sender's JFR events: {@link WriteStallEvent}
+ * around each wait, sampled {@link WriteScheduledEvent}/{@link WriteCompletedEvent}
+ * and a periodic {@link WriteQueueDepthEvent} for every open session.
+ */
+public class WriteWindow {
+
+    private static final AttributeKey WINDOW_KEY = new AttributeKey(WriteWindow.class, "window");
+    // Red de seguridad por si se pierde una señal entre la comprobación y el await.
+    private static final long RECHECK_MILLIS = 10;
+    private static final Set<WriteWindow> OPEN_WINDOWS = ConcurrentHashMap.newKeySet();
+
+    static {
+        FlightRecorder.addPeriodicEvent(WriteQueueDepthEvent.class, WriteWindow::emitQueueDepth);
+    }
+
+    private final IoSession session;
+    private final long maxBytes;
+    private final int maxMessages;
+    private final int sampleEvery;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+
+    private volatile boolean waiting;
+    private long waits;
+    private long waitedNanos;
+    // Contadores de muestreo: uno lo toca solo el productor, el otro solo el hilo del NioProcessor.
+    private long scheduledCount;
+    private long completedCount;
+
+    private WriteWindow(IoSession session, long maxBytes, int maxMessages, int sampleEvery) {
+        this.session = session;
+        this.maxBytes = maxBytes;
+        this.maxMessages = maxMessages;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Creates the window for a session and attaches it so that
+     * {@link #of(IoSession)} can find it from the handler callbacks.
+     * {@code sampleEvery} is the JFR sampling of scheduled/completed writes.
+     */
+    public static WriteWindow attach(IoSession session, long maxBytes, int maxMessages, int sampleEvery) {
+        WriteWindow window = new WriteWindow(session, maxBytes, maxMessages, sampleEvery);
+        session.setAttribute(WINDOW_KEY, window);
+        OPEN_WINDOWS.add(window);
+        return window;
+    }
+
+    /**
+     * The window attached to the session, or {@code null}.
+     */
+    public static WriteWindow of(IoSession session) {
+        return (WriteWindow) session.getAttribute(WINDOW_KEY);
+    }
+
+    /**
+     * Waits until there is room for one more write. Returns {@code false}
+     * if the session is closing, in which case nothing should be written.
+     */
+    public boolean acquire() throws InterruptedException {
+        if (sampleEvery > 0 && ++scheduledCount % sampleEvery == 0) {
+            emitScheduled();
+        }
+        if (hasRoom()) {
+            return !session.isClosing();
+        }
+        WriteStallEvent stall = new WriteStallEvent();
+        stall.begin();
+        long scheduledBytes = session.getScheduledWriteBytes();
+        int scheduledMessages = session.getScheduledWriteMessages();
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            waiting = true;
+            while (!hasRoom() && !session.isClosing()) {
+                drained.await(RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            waiting = false;
+            waits++;
+            waitedNanos += System.nanoTime() - start;
+        } finally {
+            lock.unlock();
+        }
+        stall.end();
+        if (stall.shouldCommit()) {
+            stall.sessionId = session.getId();
+            stall.scheduledBytes = scheduledBytes;
+            stall.scheduledMessages = scheduledMessages;
+            stall.commit();
+        }
+        return !session.isClosing();
+    }
+
+    /**
+     * Waits until everything written so far has left the write queue.
+     */
+    public void awaitDrained() throws InterruptedException {
+        lock.lock();
+        try {
+            waiting = true;
+            while ((session.getScheduledWriteBytes() > 0 || session.getScheduledWriteMessages() > 0) && !session.isClosing()) {
+                drained.await(RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            waiting = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called from {@code messageSent}/{@code sessionClosed}: wakes producers
+     * only if one is actually waiting, so the common path takes no lock.
+     */
+    public void onMessageSent() {
+        if (sampleEvery > 0 && ++completedCount % sampleEvery == 0) {
+            emitCompleted();
+        }
+        if (waiting) {
+            lock.lock();
+            try {
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Times a producer had to wait for the window.
+     */
+    public long getWaits() {
+        return waits;
+    }
+
+    public long getWaitedNanos() {
+        return waitedNanos;
+    }
+
+    /**
+     * Called from {@code sessionClosed}: wakes producers and stops the
+     * periodic queue-depth events for this session.
+     */
+    public void onSessionClosed() {
+        OPEN_WINDOWS.remove(this);
+        onMessageSent();
+    }
+
+    private void emitScheduled() {
+        WriteScheduledEvent event = new WriteScheduledEvent();
+        if (event.isEnabled()) {
+            event.sessionId = session.getId();
+            event.scheduledBytes = session.getScheduledWriteBytes();
+            event.scheduledMessages = session.getScheduledWriteMessages();
+            event.sampleEvery = sampleEvery;
+            event.commit();
+        }
+    }
+
+    private void emitCompleted() {
+        WriteCompletedEvent event = new WriteCompletedEvent();
+        if (event.isEnabled()) {
+            event.sessionId = session.getId();
+            event.scheduledBytes = session.getScheduledWriteBytes();
+            event.scheduledMessages = session.getScheduledWriteMessages();
+            event.sampleEvery = sampleEvery;
+            event.commit();
+        }
+    }
+
+    private static void emitQueueDepth() {
+        for (WriteWindow window : OPEN_WINDOWS) {
+            WriteQueueDepthEvent event = new WriteQueueDepthEvent();
+            event.sessionId = window.session.getId();
+            event.scheduledBytes = window.session.getScheduledWriteBytes();
+            event.scheduledMessages = window.session.getScheduledWriteMessages();
+            event.windowBytes = window.maxBytes;
+            event.windowMessages = window.maxMessages;
+            event.commit();
+        }
+    }
+
+    private boolean hasRoom() {
+        return (maxBytes <= 0 || session.getScheduledWriteBytes() < maxBytes)
+                && (maxMessages <= 0 || session.getScheduledWriteMessages() < maxMessages);
+    }
+}
@@ -0,0 +1,152 @@
+package com.lab.sender;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.service.IoHandlerAdapter;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.write.WriteRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the filter on a {@link DummySession}, whose processor "writes" each
+ * request as soon as it reaches the head and fires {@code messageSent}.
+ */
+class CoalescingFilterTest {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final DummySession session = new DummySession();
+    // Lo que llega a la cabeza de la cadena, es decir, al socket.
+    private final List<IoBuffer> written = new CopyOnWriteArrayList<>();
+    // messageSent tal como lo ve el handler.
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+    private CoalescingFilter coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.dispose();
+    }
+
+    @Test
+    void fullBatchIsWrittenAsOneBuffer() {
+        setUp(60_000_000L);
+
+        WriteFuture[] futures = new WriteFuture[8];
+        for (int i = 0; i < 8; i++) {
+            futures[i] = session.write(message(i, 8));
+        }
+
+        assertEquals(1, written.size());
+        assertEquals(BATCH_SIZE, written.get(0).remaining());
+        assertArrayEquals(expectedBytes(8, 8), concat(written));
+        assertEquals(8, sent.size());
+        for (WriteFuture future : futures) {
+            assertTrue(future.isWritten());
+        }
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterTheMaxDelay() throws InterruptedException {
+        setUp(1_000);
+
+        WriteFuture last = null;
+        for (int i = 0; i < 3; i++) {
+            last = session.write(message(i, 8));
+        }
+        assertTrue(written.isEmpty());
+        assertFalse(last.isWritten());
+
+        assertTrue(last.await(5, TimeUnit.SECONDS));
+        assertEquals(1, written.size());
+        assertArrayEquals(expectedBytes(3, 8), concat(written));
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    void messageSentKeepsTheWriteOrderAcrossBatchesAndBypasses() throws InterruptedException {
+        setUp(1_000);
+
+        IoBuffer first = message(0, 8);
+        IoBuffer second = message(1, 8);
+        IoBuffer large = message(2, BATCH_SIZE); // Más de medio lote: no se agrupa
+        IoBuffer last = message(3, 8);
+        session.write(first);
+        session.write(second);
+        session.write(large);
+        assertTrue(session.write(last).await(5, TimeUnit.SECONDS));
+
+        // Lote [0, 1] vaciado antes del grande, el grande tal cual y el lote [3] por retardo.
+        assertEquals(3, written.size());
+        assertEquals(16, written.get(0).remaining());
+        assertEquals(BATCH_SIZE, written.get(1).remaining());
+        assertEquals(8, written.get(2).remaining());
+        // Por identidad: los buffers ya consumidos son todos iguales según equals().
+        List<IoBuffer> expected = List.of(first, second, large, last);
+        assertEquals(expected.size(), sent.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), sent.get(i));
+        }
+    }
+
+    private void setUp(long maxDelayMicros) {
+        coalescer = new CoalescingFilter(BATCH_SIZE, maxDelayMicros);
+        session.getFilterChain().addLast("capture", new IoFilterAdapter() {
+            @Override
+            public void filterWrite(NextFilter nextFilter, IoSession session, WriteRequest writeRequest) {
+                written.add(((IoBuffer) writeRequest.getMessage()).duplicate());
+                nextFilter.filterWrite(session, writeRequest);
+            }
+        });
+        session.getFilterChain().addLast("coalescer", coalescer);
+        session.setHandler(new IoHandlerAdapter() {
+            @Override
+            public void messageSent(IoSession session, Object message) {
+                sent.add(message);
+            }
+        });
+    }
+
+    /**
+     * {@code length} bytes, all equal to {@code index}.
+     */
+    private static IoBuffer message(int index, int length) {
+        IoBuffer buffer = IoBuffer.allocate(length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) index);
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] expectedBytes(int messages, int length) {
+        byte[] bytes = new byte[messages * length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i / length);
+        }
+        return bytes;
+    }
+
+    private static byte[] concat(List<IoBuffer> buffers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (IoBuffer buffer : buffers) {
+            IoBuffer view = buffer.duplicate();
+            byte[] bytes = new byte[view.remaining()];
+            view.get(bytes);
+            out.writeBytes(bytes);
+        }
+        return out.toByteArray();
+    }
+}
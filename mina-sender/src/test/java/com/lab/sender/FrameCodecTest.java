@@ -0,0 +1,114 @@
+package com.lab.sender;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.service.DefaultTransportMetadata;
+import org.apache.mina.core.session.IoSessionConfig;
+import org.apache.mina.filter.codec.ProtocolCodecSession;
+import org.apache.mina.filter.codec.ProtocolDecoderException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FrameCodecTest {
+
+    private final FrameEncoder encoder = new FrameEncoder();
+    private final FrameDecoder decoder = new FrameDecoder(1024);
+    private final ProtocolCodecSession session = new ProtocolCodecSession();
+
+    @BeforeEach
+    void setUp() {
+        // Como TCP: con fragmentación el decoder acumula lo incompleto entre lecturas.
+        session.setTransportMetadata(new DefaultTransportMetadata("mina", "test", false, true,
+                SocketAddress.class, IoSessionConfig.class, Object.class));
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        Frame frame = Frame.data(42, 123_456_789L, "payload".getBytes(StandardCharsets.US_ASCII));
+
+        decode(encode(frame));
+
+        Frame decoded = (Frame) session.getDecoderOutputQueue().poll();
+        assertFrameEquals(frame, decoded);
+        assertTrue(session.getDecoderOutputQueue().isEmpty());
+    }
+
+    @Test
+    void encodesTheWireLayout() throws Exception {
+        IoBuffer wire = encode(Frame.data(7, 9, new byte[] { 1, 2, 3 }));
+
+        assertEquals(Frame.HEADER_SIZE + 3, wire.remaining());
+        assertEquals(3, wire.getInt());
+        assertEquals(Frame.TYPE_DATA, wire.get());
+        assertEquals(7, wire.getLong());
+        assertEquals(9, wire.getLong());
+    }
+
+    @Test
+    void headerSplitAcrossReads() throws Exception {
+        Frame first = Frame.data(1, 0, new byte[] { 10, 20, 30 });
+        Frame end = Frame.end(1);
+        IoBuffer firstWire = encode(first);
+        IoBuffer endWire = encode(end);
+        byte[] wire = new byte[firstWire.remaining() + endWire.remaining()];
+        firstWire.get(wire, 0, firstWire.remaining());
+        endWire.get(wire, wire.length - endWire.remaining(), endWire.remaining());
+
+        // Cortes dentro del campo de longitud, dentro del resto de la cabecera y dentro del payload.
+        int[] cuts = { 2, 9, Frame.HEADER_SIZE + 1, Frame.HEADER_SIZE + 3 + 5, wire.length };
+        int from = 0;
+        for (int cut : cuts) {
+            decode(IoBuffer.wrap(wire, from, cut - from));
+            from = cut;
+        }
+
+        assertEquals(2, session.getDecoderOutputQueue().size());
+        assertFrameEquals(first, (Frame) session.getDecoderOutputQueue().poll());
+        assertFrameEquals(end, (Frame) session.getDecoderOutputQueue().poll());
+    }
+
+    @Test
+    void byteByByte() throws Exception {
+        Frame frame = Frame.announce(1_000, "fichero.bin");
+        IoBuffer wire = encode(frame);
+
+        while (wire.hasRemaining()) {
+            decode(IoBuffer.wrap(new byte[] { wire.get() }));
+        }
+
+        Frame decoded = (Frame) session.getDecoderOutputQueue().poll();
+        assertFrameEquals(frame, decoded);
+    }
+
+    @Test
+    void rejectsOversizedLength() {
+        IoBuffer wire = IoBuffer.allocate(Frame.HEADER_SIZE);
+        FrameEncoder.putHeader(wire, Frame.TYPE_DATA, 4096, 0, 0);
+        wire.flip();
+
+        assertThrows(ProtocolDecoderException.class, () -> decode(wire));
+    }
+
+    private IoBuffer encode(Frame frame) throws Exception {
+        encoder.encode(session, frame, session.getEncoderOutput());
+        return (IoBuffer) session.getEncoderOutputQueue().poll();
+    }
+
+    private void decode(IoBuffer in) throws Exception {
+        decoder.decode(session, in, session.getDecoderOutput());
+    }
+
+    private static void assertFrameEquals(Frame expected, Frame actual) {
+        assertEquals(expected.type(), actual.type());
+        assertEquals(expected.sequence(), actual.sequence());
+        assertEquals(expected.timestamp(), actual.timestamp());
+        assertArrayEquals(expected.payload(), actual.payload());
+    }
+}
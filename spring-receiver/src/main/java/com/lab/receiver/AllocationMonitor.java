@@ -0,0 +1,92 @@
+package com.lab.receiver;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Measures heap allocation and GC activity over a receive session (from the
+ * first connection opened until the last one closes), so the byte[] and the
+ * pooled receive paths can be compared at line rate.
+ */
+@Component
+public class AllocationMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AllocationMonitor.class);
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+
+    private volatile Snapshot sessionStart;
+
+    /**
+     * Allocation and GC counters at one point in time.
+     */
+    public record Snapshot(long nanos, long allocatedBytes, long gcCount, long gcTimeMillis) {
+    }
+
+    public AllocationMonitor() {
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener((notification, handback) -> {
+                    if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        GarbageCollectionNotificationInfo info =
+                                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                        maxPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+                    }
+                }, null, null);
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gcBean.getCollectionCount(), 0);
+            gcTime += Math.max(gcBean.getCollectionTime(), 0);
+        }
+        return new Snapshot(System.nanoTime(), threadBean.getTotalThreadAllocatedBytes(), gcCount, gcTime);
+    }
+
+    /**
+     * Marks the start of a receive session.
+     */
+    public void startSession() {
+        maxPauseMillis.set(0);
+        sessionStart = snapshot();
+    }
+
+    /**
+     * Logs allocation and GC figures since {@link #startSession()}, normalised
+     * by the bytes received in the session.
+     */
+    public void logSessionReport(long receivedBytes) {
+        Snapshot start = sessionStart;
+        if (start == null) {
+            return;
+        }
+        Snapshot end = snapshot();
+        double seconds = (end.nanos() - start.nanos()) / 1_000_000_000.0;
+        double allocatedMegabytes = (end.allocatedBytes() - start.allocatedBytes()) / (1024.0 * 1024.0);
+        double receivedMegabytes = receivedBytes / (1024.0 * 1024.0);
+
+        LOGGER.info("--- ASIGNACIÓN Y GC (sesión) ---");
+        LOGGER.info("   Memoria asignada: {} MB ({} MB/s)", String.format("%.1f", allocatedMegabytes),
+                String.format("%.1f", seconds > 0 ? allocatedMegabytes / seconds : 0));
+        LOGGER.info("   Asignado por MB recibido: {} MB", String.format("%.3f",
+                receivedMegabytes > 0 ? allocatedMegabytes / receivedMegabytes : 0));
+        LOGGER.info("   GCs: {} (tiempo total {} ms, pausa máxima {} ms)", end.gcCount() - start.gcCount(),
+                end.gcTimeMillis() - start.gcTimeMillis(), maxPauseMillis.get());
+    }
+}
@@ -0,0 +1,88 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded pool of receive buffers (heap or direct). Buffers are created
+ * lazily up to {@code receiver.pool.buffers}; once all of them are in use
+ * a temporary buffer is allocated and counted as a miss, so a slow
+ * handler never blocks the reader threads.
+ */
+@Component
+public class ByteBufferPool {
+
+    private final BlockingQueue<ByteBuffer> available;
+    private final int capacity;
+    private final int bufferSize;
+    private final boolean direct;
+    private final AtomicInteger created = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ByteBufferPool(ReceiverProperties properties) {
+        ReceiverProperties.Pool pool = properties.getPool();
+        this.capacity = Math.max(1, pool.getBuffers());
+        this.bufferSize = pool.getBufferSize();
+        this.direct = pool.isDirect();
+        this.available = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Returns a cleared buffer. It must be given back with {@link #release(ByteBuffer)}.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = available.poll();
+        if (buffer != null) {
+            hits.increment();
+            buffer.clear();
+            return buffer;
+        }
+        if (created.incrementAndGet() <= capacity) {
+            hits.increment();
+            return allocate();
+        }
+        created.decrementAndGet();
+        misses.increment();
+        return allocate();
+    }
+
+    /**
+     * Gives a buffer back. Temporary buffers that do not fit are dropped for the GC.
+     */
+    public void release(ByteBuffer buffer) {
+        available.offer(buffer);
+    }
+
+    /**
+     * Maximum number of buffers kept by the pool ({@code receiver.pool.buffers}).
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private ByteBuffer allocate() {
+        return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+}
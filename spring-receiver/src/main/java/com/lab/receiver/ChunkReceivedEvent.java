@@ -0,0 +1,57 @@
+package com.lab.receiver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a received chunk. Only one in {@code receiver.jfr.chunk-sample-every}
+ * chunks is committed, so it can stay enabled in a continuous recording.
+ */
+@Name("com.lab.receiver.ChunkReceived")
+@Label("Chunk Received")
+@Category({ "Lab Perf", "Receiver" })
+@Description("Chunk recibido (muestreado)")
+@StackTrace(false)
+public class ChunkReceivedEvent extends Event {
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Size")
+    @DataAmount
+    int size;
+
+    @Label("Since Last Chunk")
+    @Timespan
+    long sinceLastChunk;
+
+    @Label("Sample Every")
+    @Description("Cada evento representa esta cantidad de chunks")
+    int sampleEvery;
+
+    /**
+     * Whether a recording has this event enabled. The event object does not
+     * escape, so after JIT this is a flag check and callers can skip the
+     * sampling entirely when nothing is recording.
+     */
+    static boolean isRecording() {
+        return new ChunkReceivedEvent().isEnabled();
+    }
+
+    static void emit(String connectionId, int size, long sinceLastChunkNanos, int sampleEvery) {
+        ChunkReceivedEvent event = new ChunkReceivedEvent();
+        if (event.isEnabled()) {
+            event.connectionId = connectionId;
+            event.size = size;
+            event.sinceLastChunk = sinceLastChunkNanos;
+            event.sampleEvery = sampleEvery;
+            event.commit();
+        }
+    }
+}
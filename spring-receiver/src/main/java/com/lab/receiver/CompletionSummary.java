@@ -0,0 +1,46 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reply sent to the sender when its stream ends: totals as the receiver
+ * saw them, END marker included, so both sides can compare exact figures.
+ * <p>
+ * Text framings get one line:
+ * {@code SUMMARY bytes=<n> messages=<n> durationNanos=<n> [crc32c=<hex>]}.
+ * BINARY gets a {@link Frame#TYPE_SUMMARY} frame whose payload is four
+ * big-endian longs: bytes, messages, durationNanos and crc32c (-1 = not computed).
+ * The sender parses both in {@code com.lab.sender.CompletionSummary}.
+ */
+public record CompletionSummary(long bytes, long messages, long durationNanos, long crc32c) {
+
+    public static final long NO_CHECKSUM = -1;
+
+    public static CompletionSummary of(ConnectionStats stats) {
+        return new CompletionSummary(stats.getBytes(), stats.getMessages(), stats.getReceiveDurationNanos(),
+                stats.getChecksum());
+    }
+
+    /**
+     * Summary line without the delimiter (the LF serializer adds it).
+     */
+    public String toLine() {
+        String line = "SUMMARY bytes=" + bytes + " messages=" + messages + " durationNanos=" + durationNanos;
+        return crc32c == NO_CHECKSUM ? line : line + " crc32c=" + Long.toHexString(crc32c);
+    }
+
+    public byte[] toLineBytes(boolean withDelimiter) {
+        return (withDelimiter ? toLine() + "\n" : toLine()).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public Frame toFrame() {
+        byte[] payload = ByteBuffer.allocate(4 * Long.BYTES)
+                .putLong(bytes)
+                .putLong(messages)
+                .putLong(durationNanos)
+                .putLong(crc32c)
+                .array();
+        return new Frame(Frame.TYPE_SUMMARY, 0, 0, payload);
+    }
+}
@@ -0,0 +1,44 @@
+package com.lab.receiver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a closed TCP connection, with its close cause and totals.
+ */
+@Name("com.lab.receiver.ConnectionClosed")
+@Label("Connection Closed")
+@Category({ "Lab Perf", "Receiver" })
+@StackTrace(false)
+public class ConnectionClosedEvent extends Event {
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Cause")
+    String cause;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Messages")
+    long messages;
+
+    static void emit(String connectionId, Throwable cause, ConnectionStats stats) {
+        ConnectionClosedEvent event = new ConnectionClosedEvent();
+        if (event.isEnabled()) {
+            event.connectionId = connectionId;
+            event.cause = cause != null ? cause.getClass().getName() + ": " + cause.getMessage() : null;
+            if (stats != null) {
+                event.bytes = stats.getBytes();
+                event.messages = stats.getMessages();
+            }
+            event.commit();
+        }
+    }
+}
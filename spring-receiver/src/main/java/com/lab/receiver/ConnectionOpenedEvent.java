@@ -0,0 +1,43 @@
+package com.lab.receiver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for an accepted TCP connection and its negotiated socket buffers.
+ */
+@Name("com.lab.receiver.ConnectionOpened")
+@Label("Connection Opened")
+@Category({ "Lab Perf", "Receiver" })
+@StackTrace(false)
+public class ConnectionOpenedEvent extends Event {
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Remote Address")
+    String remoteAddress;
+
+    @Label("SO_SNDBUF")
+    @DataAmount
+    int sendBufferSize;
+
+    @Label("SO_RCVBUF")
+    @DataAmount
+    int receiveBufferSize;
+
+    static void emit(String connectionId, String remoteAddress, int sendBufferSize, int receiveBufferSize) {
+        ConnectionOpenedEvent event = new ConnectionOpenedEvent();
+        if (event.isEnabled()) {
+            event.connectionId = connectionId;
+            event.remoteAddress = remoteAddress;
+            event.sendBufferSize = sendBufferSize;
+            event.receiveBufferSize = receiveBufferSize;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Receive statistics for a single TCP connection (one stream).
+ * Counters are {@link LongAdder}s so that the I/O threads never
+ * contend on a shared CAS.
+ */
+public class ConnectionStats {
+
+    private final String connectionId;
+    private final long openedAtNanos;
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LatencyTracker latencyTracker;
+    private final EndOfStreamDetector endOfStreamDetector = new EndOfStreamDetector();
+    // CRC32C del stream para el resumen final; null si receiver.ack.checksum está desactivado.
+    private final CRC32C checksum;
+    private final byte[] frameHeader;
+
+    // Solo los escribe el hilo que lee esta conexión; volatile para el reporte.
+    private volatile long firstByteNanos;
+    private volatile long lastByteNanos;
+    private volatile long closedAtNanos;
+
+    // Transferencia anunciada con un frame ANNOUNCE (-1 = sin anuncio).
+    private volatile long announcedBytes = -1;
+    private volatile long payloadBytes;
+    private volatile long completedAtNanos;
+
+    ConnectionStats(String connectionId, long openedAtNanos, LatencyTracker latencyTracker, boolean checksum) {
+        this.connectionId = connectionId;
+        this.openedAtNanos = openedAtNanos;
+        this.latencyTracker = latencyTracker;
+        this.checksum = checksum ? new CRC32C() : null;
+        this.frameHeader = checksum ? new byte[Frame.HEADER_SIZE] : null;
+    }
+
+    /**
+     * Accounts one received chunk.
+     */
+    void record(int chunkBytes, long nowNanos) {
+        if (firstByteNanos == 0) {
+            firstByteNanos = nowNanos;
+        }
+        lastByteNanos = nowNanos;
+        bytes.add(chunkBytes);
+        messages.increment();
+    }
+
+    /**
+     * Starts a transfer of {@code totalBytes} payload bytes announced by the sender.
+     */
+    void announce(long totalBytes, long nowNanos) {
+        announcedBytes = totalBytes;
+        payloadBytes = 0;
+        completedAtNanos = totalBytes == 0 ? nowNanos : 0;
+    }
+
+    /**
+     * Accounts payload bytes of the announced transfer. Returns {@code true}
+     * once, on the call that reaches the announced total.
+     */
+    boolean addPayload(int bytes, long nowNanos) {
+        if (announcedBytes < 0 || completedAtNanos != 0) {
+            return false;
+        }
+        payloadBytes += bytes;
+        if (payloadBytes >= announcedBytes) {
+            completedAtNanos = nowNanos;
+            return true;
+        }
+        return false;
+    }
+
+    void updateChecksum(byte[] data, int offset, int length) {
+        if (checksum != null) {
+            checksum.update(data, offset, length);
+        }
+    }
+
+    /**
+     * Adds the remaining bytes of a pooled buffer; its position is not moved.
+     */
+    void updateChecksum(ByteBuffer data) {
+        if (checksum != null) {
+            checksum.update(data.duplicate());
+        }
+    }
+
+    /**
+     * Adds a frame as it was on the wire, header included.
+     */
+    void updateChecksum(Frame frame) {
+        if (checksum != null) {
+            FrameSerializer.writeHeader(frame, frameHeader);
+            checksum.update(frameHeader);
+            checksum.update(frame.payload());
+        }
+    }
+
+    void markClosed(long nowNanos) {
+        closedAtNanos = nowNanos;
+    }
+
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    public long getOpenedAtNanos() {
+        return openedAtNanos;
+    }
+
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    public long getLastByteNanos() {
+        return lastByteNanos;
+    }
+
+    public long getClosedAtNanos() {
+        return closedAtNanos;
+    }
+
+    /**
+     * Latency tracker preallocated at open time, or {@code null} when the
+     * latency mode is disabled.
+     */
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    public EndOfStreamDetector getEndOfStreamDetector() {
+        return endOfStreamDetector;
+    }
+
+    /**
+     * CRC32C of the bytes received so far, or {@link CompletionSummary#NO_CHECKSUM}.
+     */
+    public long getChecksum() {
+        return checksum != null ? checksum.getValue() : CompletionSummary.NO_CHECKSUM;
+    }
+
+    /**
+     * Announced transfer length, or -1 if the sender announced nothing.
+     */
+    public long getAnnouncedBytes() {
+        return announcedBytes;
+    }
+
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * When the announced total was reached, 0 while incomplete.
+     */
+    public long getCompletedAtNanos() {
+        return completedAtNanos;
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    /**
+     * Time between the first and the last received chunk.
+     */
+    public long getReceiveDurationNanos() {
+        long first = firstByteNanos;
+        return first == 0 ? 0 : lastByteNanos - first;
+    }
+
+    public double getMegabytesPerSecond() {
+        return megabytesPerSecond(getBytes(), getReceiveDurationNanos());
+    }
+
+    public double getAverageChunkSize() {
+        long count = getMessages();
+        return count > 0 ? (double) getBytes() / count : 0;
+    }
+
+    static double megabytesPerSecond(long bytes, long durationNanos) {
+        double durationSeconds = durationNanos / 1_000_000_000.0;
+        return durationSeconds > 0 ? (bytes / (1024.0 * 1024.0)) / durationSeconds : 0;
+    }
+}
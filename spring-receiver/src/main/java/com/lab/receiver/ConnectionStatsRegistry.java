@@ -0,0 +1,247 @@
+package com.lab.receiver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps one {@link ConnectionStats} per TCP connection, keyed by the
+ * {@code ip_connectionId} header. A stream starts on the
+ * {@code TcpConnectionOpenEvent} and ends on the {@code TcpConnectionCloseEvent};
+ * when the last active connection closes a combined report is logged.
+ * <p>
+ * A chunk handled after its connection closed (possible when the work is
+ * handed to another thread) is dropped and counted, not accounted to a new
+ * entry that nothing would ever close.
+ */
+@Component
+public class ConnectionStatsRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionStatsRegistry.class);
+    private static final String UNKNOWN_CONNECTION = "unknown";
+    // Ids cerrados recientemente: basta con cubrir los relevos entre hilos, no toda la historia.
+    private static final int CLOSED_IDS_REMEMBERED = 4096;
+
+    private final ReceiverProperties properties;
+    private final AllocationMonitor allocationMonitor;
+    private final ByteBufferPool bufferPool;
+    private final ReceiverMetrics metrics;
+    private final Map<String, ConnectionStats> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final Set<String> closedConnections = Collections.synchronizedSet(Collections.newSetFromMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > CLOSED_IDS_REMEMBERED;
+                }
+            }));
+    private final LongAdder lateChunks = new LongAdder();
+
+    // Acumulado de todas las conexiones de la sesión actual (hasta que no quede ninguna activa).
+    private final LongAdder combinedBytes = new LongAdder();
+    private final LongAdder combinedMessages = new LongAdder();
+    private final AtomicInteger combinedConnections = new AtomicInteger();
+    private volatile long combinedFirstByteNanos;
+    private volatile long combinedLastByteNanos;
+
+    public ConnectionStatsRegistry(ReceiverProperties properties, AllocationMonitor allocationMonitor,
+            ByteBufferPool bufferPool, ReceiverMetrics metrics) {
+        this.properties = properties;
+        this.allocationMonitor = allocationMonitor;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts tracking a connection. Called from the open event listener.
+     */
+    public ConnectionStats open(String connectionId) {
+        ReceiverProperties.Latency latency = properties.getLatency();
+        LatencyTracker latencyTracker = latency.isEnabled() ? new LatencyTracker(latency.getHighestTrackableNanos()) : null;
+        ConnectionStats stats = new ConnectionStats(key(connectionId), System.nanoTime(), latencyTracker,
+                properties.getAck().isChecksum());
+        ConnectionStats previous = connections.putIfAbsent(stats.getConnectionId(), stats);
+        if (previous != null) {
+            return previous;
+        }
+        metrics.connectionOpened();
+        if (activeConnections.incrementAndGet() == 1) {
+            allocationMonitor.startSession();
+        }
+        return stats;
+    }
+
+    /**
+     * Accounts a received chunk for the given connection. If the open event
+     * has not been seen yet the connection is registered on the fly. Returns
+     * {@code null} if the connection is already closed: the chunk is dropped.
+     */
+    public ConnectionStats record(String connectionId, int chunkBytes) {
+        ConnectionStats stats = connections.get(key(connectionId));
+        if (stats == null) {
+            if (closedConnections.contains(key(connectionId))) {
+                lateChunks.increment();
+                metrics.lateChunk();
+                LOGGER.debug("Chunk de {} bytes tras el cierre de la conexión {}: descartado.", chunkBytes, connectionId);
+                return null;
+            }
+            stats = open(connectionId);
+        }
+        long now = System.nanoTime();
+        long previous = stats.getLastByteNanos();
+        stats.record(chunkBytes, now);
+        metrics.recordChunk(chunkBytes);
+        emitChunkEvents(stats, chunkBytes, previous != 0 ? now - previous : 0);
+        return stats;
+    }
+
+    /**
+     * Stops tracking a connection and logs its report. {@code cause} is the
+     * close cause from the event, {@code null} for a normal close. Returns
+     * {@code null} if the connection was never registered.
+     */
+    public ConnectionStats close(String connectionId, Throwable cause) {
+        ConnectionStats stats = connections.remove(key(connectionId));
+        if (stats == null) {
+            return null;
+        }
+        closedConnections.add(stats.getConnectionId());
+        stats.markClosed(System.nanoTime());
+        metrics.connectionClosed(stats.getConnectionId(), cause);
+        logConnectionReport(stats);
+        accumulate(stats);
+        if (activeConnections.decrementAndGet() == 0) {
+            logCombinedReport();
+        }
+        return stats;
+    }
+
+    public ConnectionStats get(String connectionId) {
+        return connections.get(key(connectionId));
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * Chunks dropped because they arrived after their connection closed.
+     */
+    public long getLateChunks() {
+        return lateChunks.sum();
+    }
+
+    private synchronized void accumulate(ConnectionStats stats) {
+        if (stats.getMessages() == 0) {
+            return;
+        }
+        combinedBytes.add(stats.getBytes());
+        combinedMessages.add(stats.getMessages());
+        combinedConnections.incrementAndGet();
+        if (combinedFirstByteNanos == 0 || stats.getFirstByteNanos() < combinedFirstByteNanos) {
+            combinedFirstByteNanos = stats.getFirstByteNanos();
+        }
+        if (stats.getLastByteNanos() > combinedLastByteNanos) {
+            combinedLastByteNanos = stats.getLastByteNanos();
+        }
+    }
+
+    private void logConnectionReport(ConnectionStats stats) {
+        long durationNanos = stats.getReceiveDurationNanos();
+        double mbps = stats.getMegabytesPerSecond();
+
+        LOGGER.info("-------------------------------------------------");
+        LOGGER.info("📊 Recepción Completada (Conexión {}):", stats.getConnectionId());
+        LOGGER.info("   Velocidad: {} MB/s ({} Mbps)", String.format("%.2f", mbps), String.format("%.2f", mbps * 8));
+        LOGGER.info("   Tiempo de Recepción: {} ms", durationNanos / 1_000_000);
+        LOGGER.info("   Total sum of read bytes: {}", stats.getBytes());
+        LOGGER.info("   Number of messages processed: {}", stats.getMessages());
+        LOGGER.info("   average bytes per message: {}", String.format("%.2f", stats.getAverageChunkSize()));
+        if (stats.getAnnouncedBytes() >= 0) {
+            LOGGER.info("   Transferencia anunciada: {} de {} bytes de payload ({})", stats.getPayloadBytes(),
+                    stats.getAnnouncedBytes(), stats.getCompletedAtNanos() != 0 ? "completa" : "INCOMPLETA");
+        }
+        LatencyTracker latencyTracker = stats.getLatencyTracker();
+        if (latencyTracker != null) {
+            logLatencyReport(latencyTracker);
+        }
+        LOGGER.info("-------------------------------------------------");
+    }
+
+    private void logLatencyReport(LatencyTracker latencyTracker) {
+        LatencyHistogram histogram = latencyTracker.getHistogram();
+        LOGGER.info("--- LATENCIA ONE-WAY ({} mensajes con marca) ---", histogram.getTotalCount());
+        LOGGER.info("   p50:   {} µs", micros(histogram.getValueAtPercentile(50.0)));
+        LOGGER.info("   p99:   {} µs", micros(histogram.getValueAtPercentile(99.0)));
+        LOGGER.info("   p99.9: {} µs", micros(histogram.getValueAtPercentile(99.9)));
+        LOGGER.info("   max:   {} µs", micros(histogram.getMaxValue()));
+        LOGGER.info("   Mensajes perdidos (huecos de secuencia): {}", latencyTracker.getMissingMessages());
+        LOGGER.info("   Mensajes fuera de orden: {}", latencyTracker.getOutOfOrderMessages());
+        LOGGER.info("   Mensajes sin marca: {}", latencyTracker.getUnstampedMessages());
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1_000.0);
+    }
+
+    private synchronized void logCombinedReport() {
+        int connectionCount = combinedConnections.getAndSet(0);
+        long bytes = combinedBytes.sumThenReset();
+        long messages = combinedMessages.sumThenReset();
+        long durationNanos = combinedLastByteNanos - combinedFirstByteNanos;
+        combinedFirstByteNanos = 0;
+        combinedLastByteNanos = 0;
+        if (connectionCount == 0) {
+            return;
+        }
+        double mbps = ConnectionStats.megabytesPerSecond(bytes, durationNanos);
+        double averageBytesPerMessage = messages > 0 ? (double) bytes / messages : 0;
+
+        LOGGER.info("=================================================");
+        LOGGER.info("📊 Total Combinado ({} conexiones):", connectionCount);
+        LOGGER.info("   Velocidad Agregada: {} MB/s ({} Mbps)", String.format("%.2f", mbps), String.format("%.2f", mbps * 8));
+        LOGGER.info("   Tiempo de Recepción: {} ms", durationNanos / 1_000_000);
+        LOGGER.info("   Total sum of read bytes: {}", bytes);
+        LOGGER.info("   Number of messages processed: {}", messages);
+        LOGGER.info("   average bytes per message: {}", String.format("%.2f", averageBytesPerMessage));
+        allocationMonitor.logSessionReport(bytes);
+        long late = lateChunks.sum();
+        if (late > 0) {
+            LOGGER.warn("   ⚠️ Chunks descartados por llegar tras el cierre de su conexión: {}", late);
+        }
+        if (properties.getPool().isEnabled()) {
+            LOGGER.info("   Pool de buffers ({}): {} reutilizados, {} temporales", bufferPool.isDirect() ? "direct" : "heap",
+                    bufferPool.getHits(), bufferPool.getMisses());
+        }
+        LOGGER.info("=================================================");
+    }
+
+    /**
+     * Sampled {@link ChunkReceivedEvent} and threshold-based {@link ReceiveStallEvent}.
+     */
+    private void emitChunkEvents(ConnectionStats stats, int chunkBytes, long gapNanos) {
+        ReceiverProperties.Jfr jfr = properties.getJfr();
+        if (gapNanos > 0 && gapNanos >= TimeUnit.MILLISECONDS.toNanos(jfr.getStallThresholdMillis())) {
+            ReceiveStallEvent.emit(stats.getConnectionId(), gapNanos);
+        }
+        int sampleEvery = jfr.getChunkSampleEvery();
+        // Sin grabación activa no se sortea nada. Aleatorio por hilo: sin contador compartido entre los hilos de I/O.
+        if (sampleEvery > 0 && ChunkReceivedEvent.isRecording() && ThreadLocalRandom.current().nextInt(sampleEvery) == 0) {
+            ChunkReceivedEvent.emit(stats.getConnectionId(), chunkBytes, gapNanos, sampleEvery);
+        }
+    }
+
+    private static String key(String connectionId) {
+        return connectionId != null ? connectionId : UNKNOWN_CONNECTION;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Recognises the sender's {@code END_OF_TRANSMISSION} marker. With LINE
+ * framing the marker is a whole message; with RAW framing it is the tail of
+ * the stream and may be split across reads, so the last bytes seen are kept.
+ * One instance per connection, used only by the thread reading it.
+ */
+public class EndOfStreamDetector {
+
+    public static final String MARKER = "END_OF_TRANSMISSION";
+
+    private static final byte[] MARKER_LINE = (MARKER + "\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MARKER_BYTES = MARKER.getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] tail = new byte[MARKER_LINE.length];
+    private int tailLength;
+
+    /**
+     * LINE framing: whether the message is the marker line.
+     */
+    public static boolean isMarkerLine(byte[] line) {
+        return Arrays.equals(line, MARKER_BYTES);
+    }
+
+    /**
+     * RAW framing: adds a chunk and returns whether the stream now ends
+     * with the marker line.
+     */
+    public boolean update(byte[] chunk, int offset, int length) {
+        int keep = Math.min(length, tail.length);
+        int shift = Math.min(tailLength, tail.length - keep);
+        System.arraycopy(tail, tailLength - shift, tail, 0, shift);
+        System.arraycopy(chunk, offset + length - keep, tail, shift, keep);
+        tailLength = shift + keep;
+        return endsWithMarker();
+    }
+
+    /**
+     * RAW framing over a pooled buffer; its position is not moved.
+     */
+    public boolean update(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        int keep = Math.min(length, tail.length);
+        int shift = Math.min(tailLength, tail.length - keep);
+        System.arraycopy(tail, tailLength - shift, tail, 0, shift);
+        chunk.get(chunk.position() + length - keep, tail, shift, keep);
+        tailLength = shift + keep;
+        return endsWithMarker();
+    }
+
+    private boolean endsWithMarker() {
+        return tailLength == tail.length && Arrays.equals(tail, MARKER_LINE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One message of the binary framed protocol. On the wire it is a fixed
+ * {@value #HEADER_SIZE}-byte big-endian header followed by the payload:
+ * <pre>
+ * int  length     payload bytes
+ * byte type       {@link #TYPE_DATA}, {@link #TYPE_END}, {@link #TYPE_ANNOUNCE}, {@link #TYPE_SUMMARY}
+ * long sequence   per-connection message number
+ * long timestamp  sender System.nanoTime(), 0 when not stamped
+ * </pre>
+ * An {@link #TYPE_ANNOUNCE} frame opens a file transfer: its payload is the
+ * file length (big-endian long) followed by the UTF-8 file name. A
+ * {@link #TYPE_SUMMARY} frame is the receiver's reply to END (see {@link CompletionSummary}).
+ * The MINA sender has the same layout in {@code com.lab.sender.Frame}.
+ */
+public record Frame(byte type, long sequence, long timestamp, byte[] payload) {
+
+    public static final int HEADER_SIZE = 4 + 1 + 8 + 8;
+
+    public static final byte TYPE_DATA = 1;
+    public static final byte TYPE_END = 2;
+    public static final byte TYPE_ANNOUNCE = 3;
+    public static final byte TYPE_SUMMARY = 4;
+
+    public boolean isEnd() {
+        return type == TYPE_END;
+    }
+
+    public boolean isAnnounce() {
+        return type == TYPE_ANNOUNCE;
+    }
+
+    /**
+     * File length carried by an announce frame.
+     */
+    public long announcedLength() {
+        return ByteBuffer.wrap(payload).getLong();
+    }
+
+    /**
+     * File name carried by an announce frame (may be empty).
+     */
+    public String announcedName() {
+        return new String(payload, Long.BYTES, payload.length - Long.BYTES, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.lab.receiver;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+
+/**
+ * Spring counterpart of the MINA {@code FrameCodecFactory}: reads and writes
+ * {@link Frame}s. The header is parsed byte by byte straight from the
+ * connection stream, so the only allocation per message is the payload.
+ */
+public class FrameSerializer implements Serializer<Frame>, Deserializer<Frame> {
+
+    private final int maxMessageSize;
+
+    public FrameSerializer(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    @Override
+    public Frame deserialize(InputStream inputStream) throws IOException {
+        int first = inputStream.read();
+        if (first < 0) {
+            throw new SoftEndOfStreamException("Stream closed between frames");
+        }
+        int length = (first << 24) | (readByte(inputStream) << 16) | (readByte(inputStream) << 8) | readByte(inputStream);
+        if (length < 0 || length > maxMessageSize) {
+            throw new IOException("Invalid frame length: " + length + " (max " + maxMessageSize + ")");
+        }
+        byte type = (byte) readByte(inputStream);
+        long sequence = readLong(inputStream);
+        long timestamp = readLong(inputStream);
+        byte[] payload = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = inputStream.read(payload, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Stream closed inside a frame payload");
+            }
+            read += n;
+        }
+        return new Frame(type, sequence, timestamp, payload);
+    }
+
+    @Override
+    public void serialize(Frame frame, OutputStream outputStream) throws IOException {
+        byte[] header = new byte[Frame.HEADER_SIZE];
+        writeHeader(frame, header);
+        outputStream.write(header);
+        outputStream.write(frame.payload());
+        outputStream.flush();
+    }
+
+    /**
+     * Encodes the wire header of {@code frame} into the first
+     * {@value Frame#HEADER_SIZE} bytes of {@code header}.
+     */
+    static void writeHeader(Frame frame, byte[] header) {
+        int length = frame.payload().length;
+        header[0] = (byte) (length >>> 24);
+        header[1] = (byte) (length >>> 16);
+        header[2] = (byte) (length >>> 8);
+        header[3] = (byte) length;
+        header[4] = frame.type();
+        putLong(header, 5, frame.sequence());
+        putLong(header, 13, frame.timestamp());
+    }
+
+    private static int readByte(InputStream inputStream) throws IOException {
+        int b = inputStream.read();
+        if (b < 0) {
+            throw new EOFException("Stream closed inside a frame header");
+        }
+        return b;
+    }
+
+    private static long readLong(InputStream inputStream) throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte(inputStream);
+        }
+        return value;
+    }
+
+    private static void putLong(byte[] target, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            target[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lab.receiver;
+
+/**
+ * One-way latency and sequence tracking for a single stream. The sender
+ * prefixes each line with {@code <sequence>;<System.nanoTime()>;}; both
+ * processes run on the same host so their monotonic clocks agree.
+ * Parsing works directly on the received bytes and does not allocate.
+ */
+public class LatencyTracker {
+
+    private static final byte SEPARATOR = ';';
+
+    private final LatencyHistogram histogram;
+
+    // Una conexión se procesa en orden por un único hilo a la vez.
+    private volatile long expectedSequence;
+    private volatile long missingMessages;
+    private volatile long outOfOrderMessages;
+    private volatile long unstampedMessages;
+
+    public LatencyTracker(long highestTrackableNanos) {
+        this.histogram = new LatencyHistogram(highestTrackableNanos);
+    }
+
+    /**
+     * Parses the stamp at the start of {@code line} and records it.
+     * Lines without a valid stamp are only counted.
+     */
+    public void recordStampedLine(byte[] line, int length, long receivedAtNanos) {
+        int position = 0;
+        long sequence = 0;
+        int digits = 0;
+        while (position < length && line[position] != SEPARATOR) {
+            int digit = line[position++] - '0';
+            if (digit < 0 || digit > 9) {
+                unstampedMessages++;
+                return;
+            }
+            sequence = sequence * 10 + digit;
+            digits++;
+        }
+        if (digits == 0 || position++ >= length) {
+            unstampedMessages++;
+            return;
+        }
+        long sentAtNanos = 0;
+        boolean negative = position < length && line[position] == '-';
+        if (negative) {
+            position++;
+        }
+        digits = 0;
+        while (position < length && line[position] != SEPARATOR) {
+            int digit = line[position++] - '0';
+            if (digit < 0 || digit > 9) {
+                unstampedMessages++;
+                return;
+            }
+            sentAtNanos = sentAtNanos * 10 + digit;
+            digits++;
+        }
+        if (digits == 0) {
+            unstampedMessages++;
+            return;
+        }
+        record(sequence, negative ? -sentAtNanos : sentAtNanos, receivedAtNanos);
+    }
+
+    /**
+     * Records one stamped message.
+     */
+    public void record(long sequence, long sentAtNanos, long receivedAtNanos) {
+        histogram.record(receivedAtNanos - sentAtNanos);
+        long expected = expectedSequence;
+        if (sequence == expected) {
+            expectedSequence = expected + 1;
+        } else if (sequence > expected) {
+            missingMessages += sequence - expected;
+            expectedSequence = sequence + 1;
+        } else {
+            // Llega tarde un mensaje que ya contamos como perdido.
+            outOfOrderMessages++;
+            if (missingMessages > 0) {
+                missingMessages--;
+            }
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getMissingMessages() {
+        return missingMessages;
+    }
+
+    public long getOutOfOrderMessages() {
+        return outOfOrderMessages;
+    }
+
+    public long getUnstampedMessages() {
+        return unstampedMessages;
+    }
+}
@@ -0,0 +1,153 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Persistent sink ({@code receiver.sink.enabled}): one
+ * {@link MappedSegmentWriter} per connection, a timer that forces every
+ * open writer each {@code force-interval-millis} (group commit), and a
+ * per-connection report next to the network one. The report keeps the copy
+ * into the mapping (page cache speed) apart from the time spent in
+ * {@code force()}, the only part that waits for the disk.
+ */
+@Component
+public class MappedFileSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedFileSink.class);
+    private static final String UNKNOWN_CONNECTION = "unknown";
+
+    private final ReceiverProperties.Sink sinkProperties;
+    private final ReceiverMetrics metrics;
+    private final Path directory;
+    private final Map<String, MappedSegmentWriter> writers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService forceTimer;
+
+    public MappedFileSink(ReceiverProperties properties, ReceiverMetrics metrics) {
+        this.sinkProperties = properties.getSink();
+        this.metrics = metrics;
+        this.directory = Path.of(sinkProperties.getDirectory());
+        long interval = sinkProperties.getForceIntervalMillis();
+        if (sinkProperties.isEnabled() && interval > 0) {
+            this.forceTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sink-force");
+                thread.setDaemon(true);
+                return thread;
+            });
+            forceTimer.scheduleWithFixedDelay(this::forceAll, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.forceTimer = null;
+        }
+        if (sinkProperties.isEnabled()) {
+            LOGGER.info("💾 Sink a disco activado: {} (segmentos de {} bytes, force cada {})", directory.toAbsolutePath(),
+                    sinkProperties.getSegmentSize(), interval > 0 ? interval + " ms" : "rotación/cierre");
+        }
+    }
+
+    public boolean isEnabled() {
+        return sinkProperties.isEnabled();
+    }
+
+    public void write(String connectionId, byte[] chunk) {
+        writerFor(connectionId).write(chunk, 0, chunk.length);
+        metrics.recordSinkWrite(chunk.length);
+    }
+
+    /**
+     * Writes the remaining bytes of a pooled buffer; its position is not moved.
+     */
+    public void write(String connectionId, ByteBuffer chunk) {
+        int length = chunk.remaining();
+        writerFor(connectionId).write(chunk);
+        metrics.recordSinkWrite(length);
+    }
+
+    public void writeLine(String connectionId, byte[] line) {
+        writerFor(connectionId).writeLine(line);
+        metrics.recordSinkWrite(line.length + 1);
+    }
+
+    public void writeFrame(String connectionId, Frame frame) {
+        writerFor(connectionId).writeFrame(frame);
+        metrics.recordSinkWrite(Frame.HEADER_SIZE + frame.payload().length);
+    }
+
+    /**
+     * Closes the connection's segments and logs the disk report. {@code stats}
+     * is the network side from {@link ConnectionStatsRegistry#close}, may be {@code null}.
+     */
+    public void close(String connectionId, ConnectionStats stats) {
+        MappedSegmentWriter writer = writers.remove(key(connectionId));
+        if (writer == null) {
+            return;
+        }
+        writer.close();
+        logDiskReport(key(connectionId), writer, stats);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (forceTimer != null) {
+            forceTimer.shutdownNow();
+        }
+        writers.values().forEach(MappedSegmentWriter::close);
+        writers.clear();
+    }
+
+    private MappedSegmentWriter writerFor(String connectionId) {
+        MappedSegmentWriter writer = writers.get(key(connectionId));
+        if (writer == null) {
+            writer = writers.computeIfAbsent(key(connectionId),
+                    id -> new MappedSegmentWriter(directory.resolve(id.replaceAll("[^A-Za-z0-9._-]", "_")),
+                            sinkProperties.getSegmentSize()));
+        }
+        return writer;
+    }
+
+    private void forceAll() {
+        for (MappedSegmentWriter writer : writers.values()) {
+            try {
+                writer.force();
+            } catch (RuntimeException e) {
+                LOGGER.warn("⚠️ force() falló en {}: {}", writer.getDirectory(), e.getMessage());
+            }
+        }
+    }
+
+    private void logDiskReport(String connectionId, MappedSegmentWriter writer, ConnectionStats stats) {
+        long bytes = writer.getBytesWritten();
+        // Copiar a la proyección solo llena el page cache: es velocidad de memoria, no de disco.
+        long copyNanos = writer.getCopyNanos() + writer.getMapNanos();
+        double copyMbps = ConnectionStats.megabytesPerSecond(bytes, copyNanos);
+        double forceMbps = ConnectionStats.megabytesPerSecond(bytes, writer.getForceNanos());
+
+        LOGGER.info("💾 Sink (Conexión {}): {} bytes en {} segmento(s) en {}", connectionId, bytes,
+                writer.getSegments(), writer.getDirectory().toAbsolutePath());
+        LOGGER.info("   Copia a la proyección mmap (page cache): {} MB/s ({} ms de copia, {} ms de mapeo)",
+                String.format("%.2f", copyMbps), writer.getCopyNanos() / 1_000_000, writer.getMapNanos() / 1_000_000);
+        LOGGER.info("   force() a disco: {} llamadas / {} ms ({} MB/s sobre el tiempo de force; "
+                + "lo que el kernel ya había escrito por su cuenta no cuenta)", writer.getForces(),
+                writer.getForceNanos() / 1_000_000, String.format("%.2f", forceMbps));
+        if (stats != null && stats.getReceiveDurationNanos() > 0) {
+            double copyShare = 100.0 * copyNanos / stats.getReceiveDurationNanos();
+            LOGGER.info("   Red: {} MB/s. La copia al sink ocupó el {}% de la recepción{}",
+                    String.format("%.2f", stats.getMegabytesPerSecond()), String.format("%.1f", copyShare),
+                    copyShare > 50 ? " -> el sink limita la transferencia." : ".");
+        }
+    }
+
+    private static String key(String connectionId) {
+        return connectionId != null ? connectionId : UNKNOWN_CONNECTION;
+    }
+}
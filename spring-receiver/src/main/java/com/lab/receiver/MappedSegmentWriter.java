@@ -0,0 +1,252 @@
+package com.lab.receiver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes one connection's stream to {@code segment-NNNNN.dat} files of a fixed
+ * size through a {@link MappedByteBuffer}. Each segment is mapped at full size
+ * up front, which only extends the file sparsely: no disk blocks are
+ * allocated until the pages are written back, so a full disk surfaces as an
+ * error on a later write or force, not when the segment is mapped. Segments
+ * are filled with plain memory copies and forced when they roll over,
+ * when the connection closes and periodically from the {@link MappedFileSink}
+ * timer (group commit). The last segment is truncated to its real length on
+ * {@link #close()}.
+ * <p>
+ * Writes come from the thread reading the connection and hold a write lock
+ * that {@link #close()} also takes, so a write never lands in a segment that
+ * close already truncated; a write after close fails with
+ * {@link IllegalStateException}. {@link #force()} and rollover only take the
+ * writer's monitor, so the periodic force does not stall the copies.
+ * <p>
+ * The JDK cannot unmap a buffer, so on Windows the truncate of the last
+ * (still mapped) segment fails; the file is then left at full size.
+ */
+public class MappedSegmentWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedSegmentWriter.class);
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final Path directory;
+    private final int segmentSize;
+    private final byte[] frameHeader = new byte[Frame.HEADER_SIZE];
+    // Orden de bloqueo: writeLock y después el monitor del writer (rollOver, close).
+    private final Object writeLock = new Object();
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer segment;
+    private int segments;
+    private volatile boolean closed;
+
+    // Los escribe solo el hilo de la conexión; volatile para el timer y el reporte.
+    private volatile long bytesWritten;
+    private volatile long copyNanos;
+    private final AtomicLong mapNanos = new AtomicLong();
+    private final AtomicLong forceNanos = new AtomicLong();
+    private final AtomicLong forces = new AtomicLong();
+    private long forcedBytes;
+
+    MappedSegmentWriter(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public void write(byte[] source, int offset, int length) {
+        synchronized (writeLock) {
+            long start = System.nanoTime();
+            int remaining = length;
+            while (remaining > 0) {
+                MappedByteBuffer current = segmentWithRoom();
+                int n = Math.min(remaining, current.remaining());
+                current.put(source, offset, n);
+                offset += n;
+                remaining -= n;
+            }
+            bytesWritten += length;
+            copyNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Copies the remaining bytes of {@code source} without moving its position.
+     */
+    public void write(ByteBuffer source) {
+        synchronized (writeLock) {
+            long start = System.nanoTime();
+            ByteBuffer view = source.duplicate();
+            int length = view.remaining();
+            while (view.hasRemaining()) {
+                MappedByteBuffer current = segmentWithRoom();
+                int n = Math.min(view.remaining(), current.remaining());
+                current.put(current.position(), view, view.position(), n);
+                current.position(current.position() + n);
+                view.position(view.position() + n);
+            }
+            bytesWritten += length;
+            copyNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Writes the frame as it was on the wire: header and payload.
+     */
+    public void writeFrame(Frame frame) {
+        FrameSerializer.writeHeader(frame, frameHeader);
+        write(frameHeader, 0, frameHeader.length);
+        write(frame.payload(), 0, frame.payload().length);
+    }
+
+    /**
+     * Writes a line and the {@code \n} the LF deserializer stripped.
+     */
+    public void writeLine(byte[] line) {
+        write(line, 0, line.length);
+        write(NEWLINE, 0, NEWLINE.length);
+    }
+
+    /**
+     * Flushes the dirty pages of the current segment to disk, if anything
+     * was written since the last force.
+     */
+    public synchronized void force() {
+        long written = bytesWritten;
+        if (closed || segment == null || written == forcedBytes) {
+            return;
+        }
+        forceSegment();
+        forcedBytes = written;
+    }
+
+    /**
+     * Forces the last segment, truncates it to the bytes actually written
+     * and closes the file. Waits for a write in progress to finish.
+     */
+    public void close() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                closeSegment();
+            }
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Time spent copying into the mapped segments (includes the page faults
+     * of freshly mapped pages).
+     */
+    public long getCopyNanos() {
+        return copyNanos;
+    }
+
+    /**
+     * Time spent creating and mapping segments.
+     */
+    public long getMapNanos() {
+        return mapNanos.get();
+    }
+
+    public long getForceNanos() {
+        return forceNanos.get();
+    }
+
+    public long getForces() {
+        return forces.get();
+    }
+
+    private void closeSegment() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel == null) {
+            return;
+        }
+        long lastSegmentBytes = bytesWritten - (long) (segments - 1) * segmentSize;
+        try {
+            forceSegment();
+            // Con writeLock tomado ninguna escritura sigue en curso: se suelta el mapeo y se acorta.
+            segment = null;
+            truncate(lastSegmentBytes);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close segment " + segments + " in " + directory, e);
+        }
+    }
+
+    private MappedByteBuffer segmentWithRoom() {
+        if (closed) {
+            throw new IllegalStateException("Segment writer for " + directory + " is already closed");
+        }
+        MappedByteBuffer current = segment;
+        if (current != null && current.hasRemaining()) {
+            return current;
+        }
+        return rollOver();
+    }
+
+    private synchronized MappedByteBuffer rollOver() {
+        if (closed) {
+            throw new IllegalStateException("Segment writer for " + directory + " is already closed");
+        }
+        if (channel != null) {
+            forceSegment();
+        }
+        long start = System.nanoTime();
+        try {
+            if (channel != null) {
+                channel.close();
+            } else {
+                Files.createDirectories(directory);
+            }
+            Path file = directory.resolve(String.format("segment-%05d.dat", segments));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Mapear el tamaño completo extiende el fichero de forma dispersa: no reserva bloques en disco.
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segments++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map segment " + segments + " in " + directory, e);
+        }
+        mapNanos.addAndGet(System.nanoTime() - start);
+        return segment;
+    }
+
+    private void truncate(long length) {
+        try {
+            channel.truncate(length);
+        } catch (IOException e) {
+            // Windows no permite acortar un fichero mapeado y el mapeo solo lo libera el GC.
+            LOGGER.warn("⚠️ No se pudo truncar el segmento {} en {} a {} bytes; queda a tamaño completo: {}",
+                    segments, directory, length, e.getMessage());
+        }
+    }
+
+    private void forceSegment() {
+        long start = System.nanoTime();
+        segment.force();
+        forceNanos.addAndGet(System.nanoTime() - start);
+        forces.incrementAndGet();
+    }
+}
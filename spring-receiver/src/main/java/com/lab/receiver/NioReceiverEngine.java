@@ -0,0 +1,451 @@
+package com.lab.receiver;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Baseline engine ({@code receiver.engine=nio}) written directly on
+ * {@link Selector}/{@link ServerSocketChannel}, to measure what the Spring
+ * Integration factory, message wrapping and channel dispatch cost on top of
+ * plain NIO. One acceptor thread hands connections round-robin to N reactor
+ * threads; each reactor owns a selector and one reusable direct buffer, and
+ * a connection stays on its reactor for its whole life. The per-message work
+ * is the same {@link ReceiveHandler} the Spring engine uses, so statistics,
+ * sink, metrics and completion replies are directly comparable.
+ * <p>
+ * The JDK cannot pin threads to cores: the default is one reactor per
+ * available processor, and pinning is left to {@code taskset}/{@code numactl}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "receiver", name = "engine", havingValue = "nio")
+public class NioReceiverEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioReceiverEngine.class);
+
+    private final ReceiverProperties properties;
+    private final ConnectionStatsRegistry statsRegistry;
+    private final ReceiveHandler receiveHandler;
+    private final MappedFileSink sink;
+    private final ReceiverMetrics metrics;
+    private final ReceiverProperties.Framing framing;
+    private final AtomicLong connectionSequence = new AtomicLong();
+
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private Reactor[] reactors;
+
+    public NioReceiverEngine(ReceiverProperties properties, ConnectionStatsRegistry statsRegistry,
+            ReceiveHandler receiveHandler, MappedFileSink sink, ReceiverMetrics metrics) {
+        this.properties = properties;
+        this.statsRegistry = statsRegistry;
+        this.receiveHandler = receiveHandler;
+        this.sink = sink;
+        this.metrics = metrics;
+        this.framing = receiveHandler.getFraming();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        ReceiverProperties.Socket socket = properties.getSocket();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        if (socket.getReceiveBufferSize() > 0) {
+            // Antes del bind: las conexiones aceptadas lo heredan y el window scaling se negocia con él.
+            serverChannel.setOption(StandardSocketOptions.SO_RCVBUF, socket.getReceiveBufferSize());
+        }
+        serverChannel.bind(new InetSocketAddress(properties.getPort()));
+
+        reactors = new Reactor[Math.max(1, properties.getNio().getReactors())];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(i, properties.getMaxMessageSize());
+            reactors[i].thread.start();
+        }
+        acceptor = new Thread(this::acceptLoop, "nio-acceptor");
+        acceptor.start();
+
+        LOGGER.info("-> Motor NIO escuchando en el puerto {} ({} Serializer)", properties.getPort(), framing);
+        LOGGER.info("   -> 1 acceptor + {} reactores, buffer direct de {} bytes por reactor", reactors.length,
+                properties.getMaxMessageSize());
+        LOGGER.info("   -> Búfer Solicitado Envío/Recepción: {} / {} bytes (0 = defecto del SO)",
+                socket.getSendBufferSize(), socket.getReceiveBufferSize());
+        LOGGER.info("   -> Sink a disco: {}", sink.isEnabled() ? properties.getSink().getDirectory() : "desactivado");
+        if (properties.getPipeline().isEnabled() || properties.getPool().isEnabled()) {
+            LOGGER.warn("⚠️ receiver.pipeline y receiver.pool solo aplican al motor Spring: se ignoran con el motor NIO.");
+        }
+    }
+
+    public boolean isListening() {
+        return serverChannel != null && serverChannel.isOpen();
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ Error cerrando el socket de escucha: {}", e.getMessage());
+        }
+        for (Reactor reactor : reactors) {
+            reactor.thread.interrupt();
+        }
+        try {
+            acceptor.join(1000);
+            for (Reactor reactor : reactors) {
+                reactor.thread.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                reactors[next].register(channel);
+                next = (next + 1) % reactors.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("⚠️ Error aceptando una conexión: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String connectionId(SocketChannel channel) throws IOException {
+        InetSocketAddress remote = (InetSocketAddress) channel.getRemoteAddress();
+        return remote.getHostString() + ":" + remote.getPort() + ":nio-" + connectionSequence.incrementAndGet();
+    }
+
+    /**
+     * Summary as it goes on the wire; here there is no serializer to add the
+     * delimiter or the frame header.
+     */
+    private ByteBuffer encode(CompletionSummary summary) {
+        if (framing != ReceiverProperties.Framing.BINARY) {
+            return ByteBuffer.wrap(summary.toLineBytes(true));
+        }
+        Frame frame = summary.toFrame();
+        byte[] bytes = new byte[Frame.HEADER_SIZE + frame.payload().length];
+        FrameSerializer.writeHeader(frame, bytes);
+        System.arraycopy(frame.payload(), 0, bytes, Frame.HEADER_SIZE, frame.payload().length);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * One selector thread. Connections arrive from the acceptor through
+     * {@link #register(SocketChannel)}; everything else happens on this thread.
+     */
+    private final class Reactor implements Runnable {
+
+        private final Selector selector;
+        private final ByteBuffer readBuffer;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+
+        Reactor(int index, int readBufferSize) throws IOException {
+            this.selector = Selector.open();
+            this.readBuffer = ByteBuffer.allocateDirect(readBufferSize);
+            this.thread = new Thread(this, "nio-reactor-" + index);
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    selector.select();
+                    registerPending();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(key);
+                        }
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                // Parada
+            } catch (IOException e) {
+                LOGGER.error("🔥 Error en el selector de {}: {}", thread.getName(), e.getMessage(), e);
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    if (properties.getSocket().getSendBufferSize() > 0) {
+                        channel.setOption(StandardSocketOptions.SO_SNDBUF, properties.getSocket().getSendBufferSize());
+                    }
+                    Connection connection = new Connection(connectionId(channel), channel);
+                    channel.register(selector, SelectionKey.OP_READ, connection);
+                    opened(connection);
+                } catch (IOException e) {
+                    LOGGER.warn("⚠️ No se pudo registrar la conexión: {}", e.getMessage());
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void read(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                readBuffer.clear();
+                int read = connection.channel.read(readBuffer);
+                if (read < 0) {
+                    close(key, connection, null);
+                    return;
+                }
+                if (read == 0) {
+                    return;
+                }
+                readBuffer.flip();
+                CompletionSummary summary = connection.receive(readBuffer);
+                if (summary != null) {
+                    reply(key, connection, summary);
+                }
+            } catch (IOException e) {
+                close(key, connection, e);
+            } catch (RuntimeException e) {
+                // Mismo criterio que el motor Spring: un fallo del handler no cierra la conexión.
+                LOGGER.error("🔥 Error procesando datos de la conexión {}: {}", connection.id, e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Writes what fits now; if the send buffer is full the rest waits on
+         * the connection and {@code OP_WRITE} finishes it, so a peer that
+         * stops reading never holds up the other connections of this reactor.
+         * While a reply is unsent only the newest later one is kept.
+         */
+        private void reply(SelectionKey key, Connection connection, CompletionSummary summary) {
+            if (connection.unsent != null) {
+                // Los resúmenes son acumulados: basta con el último detrás del que se está escribiendo.
+                connection.nextReply = summary;
+                return;
+            }
+            connection.startReply(encode(summary), summary);
+            flush(key);
+        }
+
+        private void flush(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            while (connection.unsent != null) {
+                try {
+                    connection.channel.write(connection.unsent);
+                } catch (IOException e) {
+                    LOGGER.warn("⚠️ No se pudo enviar el resumen (Conexión {}): {}", connection.id, e.getMessage());
+                    connection.unsent = null;
+                    connection.nextReply = null;
+                    break;
+                }
+                if (connection.unsent.hasRemaining()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                LOGGER.info("📨 Resumen enviado al emisor (Conexión {}): {}", connection.id, connection.unsentSummary.toLine());
+                CompletionSummary next = connection.nextReply;
+                connection.unsent = null;
+                connection.nextReply = null;
+                if (next != null) {
+                    connection.startReply(encode(next), next);
+                }
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+
+        private void opened(Connection connection) throws IOException {
+            statsRegistry.open(connection.id);
+            int sendBuffer = connection.channel.getOption(StandardSocketOptions.SO_SNDBUF);
+            int receiveBuffer = connection.channel.getOption(StandardSocketOptions.SO_RCVBUF);
+            metrics.socketBuffers(connection.id, sendBuffer, receiveBuffer);
+            String remote = connection.channel.getRemoteAddress().toString();
+            ConnectionOpenedEvent.emit(connection.id, remote, sendBuffer, receiveBuffer);
+
+            LOGGER.info("-------------------------------------------------");
+            LOGGER.info("ℹ️  TCP Connection Opened (NIO - ID: {}, {})", connection.id, thread.getName());
+            LOGGER.info("   -> Remote Host: {}", remote);
+            LOGGER.info("   -> Send Buffer (SO_SNDBUF):   {} bytes ({} KB)", sendBuffer, sendBuffer / 1024);
+            LOGGER.info("   -> Receive Buffer (SO_RCVBUF): {} bytes ({} KB)", receiveBuffer, receiveBuffer / 1024);
+            LOGGER.info("-------------------------------------------------");
+        }
+
+        private void close(SelectionKey key, Connection connection, Throwable cause) {
+            key.cancel();
+            closeQuietly(connection.channel);
+            LOGGER.warn("🚫 Conexión TCP Cerrada (NIO - ID: {}). Causa: {}", connection.id,
+                    cause != null ? cause.getMessage() : "Cierre normal");
+            ConnectionStats stats = statsRegistry.close(connection.id, cause);
+            ConnectionClosedEvent.emit(connection.id, cause, stats);
+            sink.close(connection.id, stats);
+        }
+
+        private void closeAll() {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection connection) {
+                        close(key, connection, null);
+                    }
+                }
+                selector.close();
+            } catch (IOException | ClosedSelectorException e) {
+                LOGGER.warn("⚠️ Error cerrando {}: {}", thread.getName(), e.getMessage());
+            }
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    /**
+     * State of one accepted socket. RAW chunks go straight from the reactor's
+     * direct buffer to the handler; LINE and BINARY are reassembled in a heap
+     * buffer of {@code receiver.max-message-size} plus the delimiter/header.
+     */
+    private final class Connection {
+
+        private final String id;
+        private final SocketChannel channel;
+        private final ByteBuffer pending;
+        // Bytes al principio de pending ya revisados sin encontrar \n.
+        private int scanned;
+        // Respuesta a medio escribir (búfer de envío lleno) y, como mucho, otra en espera.
+        private ByteBuffer unsent;
+        private CompletionSummary unsentSummary;
+        private CompletionSummary nextReply;
+
+        Connection(String id, SocketChannel channel) {
+            this.id = id;
+            this.channel = channel;
+            int maxMessageSize = properties.getMaxMessageSize();
+            this.pending = switch (framing) {
+                case RAW -> null;
+                case LINE -> ByteBuffer.allocate(maxMessageSize + 1);
+                case BINARY -> ByteBuffer.allocate(maxMessageSize + Frame.HEADER_SIZE);
+            };
+        }
+
+        void startReply(ByteBuffer out, CompletionSummary summary) {
+            unsent = out;
+            unsentSummary = summary;
+        }
+
+        /**
+         * Handles the bytes just read and returns the summary to send back, if any.
+         */
+        CompletionSummary receive(ByteBuffer data) throws IOException {
+            if (pending == null) {
+                return receiveHandler.handleBuffer(id, data);
+            }
+            CompletionSummary summary = null;
+            while (data.hasRemaining()) {
+                int n = Math.min(data.remaining(), pending.remaining());
+                if (n == 0) {
+                    throw new IOException("Message larger than max-message-size (" + properties.getMaxMessageSize() + ")");
+                }
+                pending.put(pending.position(), data, data.position(), n);
+                pending.position(pending.position() + n);
+                data.position(data.position() + n);
+                pending.flip();
+                CompletionSummary last;
+                try {
+                    last = (framing == ReceiverProperties.Framing.LINE) ? lines() : frames();
+                } finally {
+                    // Lo consumido se descarta aunque el handler haya fallado a mitad.
+                    pending.compact();
+                }
+                if (last != null) {
+                    summary = last;
+                }
+            }
+            return summary;
+        }
+
+        private CompletionSummary lines() {
+            CompletionSummary summary = null;
+            int start = pending.position();
+            int from = start + scanned;
+            scanned = 0;
+            for (int i = from; i < pending.limit(); i++) {
+                if (pending.get(i) == '\n') {
+                    byte[] line = new byte[i - start];
+                    pending.get(start, line);
+                    pending.position(i + 1);
+                    start = i + 1;
+                    CompletionSummary last = receiveHandler.handleChunk(id, line);
+                    if (last != null) {
+                        summary = last;
+                    }
+                }
+            }
+            scanned = pending.remaining();
+            return summary;
+        }
+
+        private CompletionSummary frames() throws IOException {
+            CompletionSummary summary = null;
+            while (pending.remaining() >= Frame.HEADER_SIZE) {
+                int length = pending.getInt(pending.position());
+                if (length < 0 || length > properties.getMaxMessageSize()) {
+                    throw new IOException("Invalid frame length: " + length + " (max " + properties.getMaxMessageSize() + ")");
+                }
+                if (pending.remaining() < Frame.HEADER_SIZE + length) {
+                    break;
+                }
+                pending.getInt();
+                byte type = pending.get();
+                long sequence = pending.getLong();
+                long timestamp = pending.getLong();
+                byte[] payload = new byte[length];
+                pending.get(payload);
+                CompletionSummary last = receiveHandler.handleFrame(id, new Frame(type, sequence, timestamp, payload));
+                if (last != null) {
+                    summary = last;
+                }
+            }
+            return summary;
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ya cerrado
+        }
+    }
+}
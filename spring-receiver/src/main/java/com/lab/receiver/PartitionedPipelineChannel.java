@@ -0,0 +1,218 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.ip.IpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional stage ({@code receiver.pipeline.enabled}) between the TCP adapter
+ * and the handler. The reader thread only enqueues; each connection id maps
+ * to one partition (bounded queue and a single worker), so a stream is
+ * handled in order while different connections spread over the cores.
+ * A worker drains up to {@code batch-size} messages per wake-up into the
+ * downstream channel.
+ * <p>
+ * When a partition is full the reader blocks or drops the message,
+ * depending on {@code receiver.pipeline.overflow}. Connection close work
+ * goes through the same partition ({@link #executeInOrder}) so that it runs
+ * after the connection's last message. When the pipeline is disabled every
+ * call runs inline on the caller's thread, as with a {@code DirectChannel}.
+ */
+public class PartitionedPipelineChannel implements MessageChannel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedPipelineChannel.class);
+
+    private final MessageChannel downstream;
+    private final ByteBufferPool bufferPool;
+    private final ReceiverMetrics metrics;
+    private final boolean dropWhenFull;
+    private final int batchSize;
+    private final Partition[] partitions;
+    private final AtomicBoolean dropWarned = new AtomicBoolean();
+
+    public PartitionedPipelineChannel(ReceiverProperties.Pipeline pipeline, MessageChannel downstream,
+            ByteBufferPool bufferPool, ReceiverMetrics metrics) {
+        this.downstream = downstream;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+        this.dropWhenFull = pipeline.getOverflow() == ReceiverProperties.Overflow.DROP;
+        this.batchSize = Math.max(1, pipeline.getBatchSize());
+        int workers = pipeline.isEnabled() ? Math.max(1, pipeline.getWorkers()) : 0;
+        this.partitions = new Partition[workers];
+        for (int i = 0; i < workers; i++) {
+            partitions[i] = new Partition(i, Math.max(1, pipeline.getQueueCapacity()));
+            metrics.pipelinePartition(i, partitions[i].queue);
+            partitions[i].worker.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return partitions.length > 0;
+    }
+
+    /**
+     * Number of partitions (worker threads); 0 when disabled.
+     */
+    public int getPartitions() {
+        return partitions.length;
+    }
+
+    @Override
+    public boolean send(Message<?> message) {
+        return send(message, -1);
+    }
+
+    /**
+     * Enqueues on the connection's partition. A dropped message still counts
+     * as sent, otherwise the adapter would fail the connection. With
+     * {@code BLOCK} a full partition waits up to {@code timeout} ms (forever
+     * when negative) and returns false when the wait expires.
+     */
+    @Override
+    public boolean send(Message<?> message, long timeout) {
+        if (!isEnabled()) {
+            return downstream.send(message, timeout);
+        }
+        Partition partition = partitionFor(message.getHeaders().get(IpHeaders.CONNECTION_ID, String.class));
+        if (partition.queue.offer(message)) {
+            return true;
+        }
+        if (dropWhenFull) {
+            drop(message);
+            return true;
+        }
+        metrics.pipelineBlocked();
+        return timeout < 0 ? partition.put(message) : partition.offer(message, timeout);
+    }
+
+    /**
+     * Runs {@code task} on the connection's partition after everything
+     * already queued for it. Never dropped, even with {@code DROP}.
+     */
+    public void executeInOrder(String connectionId, Runnable task) {
+        if (!isEnabled()) {
+            task.run();
+            return;
+        }
+        partitionFor(connectionId).put(task);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Partition partition : partitions) {
+            partition.worker.interrupt();
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Lo que quede en cola no se procesará: los buffers vuelven al pool.
+            partition.queue.forEach(this::releasePooled);
+            partition.queue.clear();
+        }
+    }
+
+    private Partition partitionFor(String connectionId) {
+        return partitions[connectionId == null ? 0 : Math.floorMod(connectionId.hashCode(), partitions.length)];
+    }
+
+    private void drop(Message<?> message) {
+        metrics.pipelineDropped();
+        releasePooled(message);
+        if (dropWarned.compareAndSet(false, true)) {
+            LOGGER.warn("⚠️ Pipeline lleno: se descartan mensajes (receiver.pipeline.overflow=DROP). "
+                    + "Los totales y el resumen al emisor ya no cuadrarán.");
+        }
+    }
+
+    private void releasePooled(Object entry) {
+        if (entry instanceof Message<?> message && message.getPayload() instanceof ByteBuffer buffer) {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * One bounded queue and the single worker that empties it.
+     */
+    private final class Partition implements Runnable {
+
+        private final BlockingQueue<Object> queue;
+        private final Thread worker;
+
+        Partition(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this, "pipeline-worker-" + index);
+            this.worker.setDaemon(true);
+        }
+
+        boolean put(Object entry) {
+            try {
+                queue.put(entry);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                releasePooled(entry);
+                return false;
+            }
+        }
+
+        boolean offer(Object entry, long timeoutMillis) {
+            try {
+                if (queue.offer(entry, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // No llegó a la cola: el buffer vuelve al pool aquí.
+            releasePooled(entry);
+            return false;
+        }
+
+        @Override
+        public void run() {
+            List<Object> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Un take() bloqueante y el resto del lote sin esperar: menos despertares por mensaje.
+                queue.drainTo(batch, batchSize - 1);
+                for (Object entry : batch) {
+                    dispatch(entry);
+                }
+                batch.clear();
+            }
+        }
+
+        private void dispatch(Object entry) {
+            try {
+                if (entry instanceof Runnable task) {
+                    task.run();
+                } else {
+                    downstream.send((Message<?>) entry);
+                }
+            } catch (RuntimeException e) {
+                // Un fallo en un mensaje no debe parar la partición (ni las demás conexiones que comparte).
+                LOGGER.error("🔥 Error procesando en {}: {}", worker.getName(), e.getMessage(), e);
+            }
+        }
+    }
+}
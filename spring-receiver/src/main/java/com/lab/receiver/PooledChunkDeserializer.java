@@ -0,0 +1,86 @@
+package com.lab.receiver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+
+/**
+ * Raw deserializer that fills a {@link ByteBuffer} taken from the
+ * {@link ByteBufferPool} instead of copying into a freshly sized
+ * {@code byte[]}. Like {@code ByteArrayRawSerializer} it reads with blocking
+ * calls, never sized by {@code available()}, until the buffer is full or the
+ * stream ends. The handler must release the buffer once it is done with it.
+ * <p>
+ * Direct buffers have no backing array, so their bytes go through a scratch
+ * array taken from a small pool of its own. A {@code ThreadLocal} would not
+ * help here: the connection factory's executor starts a new thread per task.
+ */
+public class PooledChunkDeserializer implements Deserializer<ByteBuffer> {
+
+    private final ByteBufferPool pool;
+
+    // Un scratch por lectura en curso, no por hilo: se devuelve al terminar cada lectura.
+    private final BlockingQueue<byte[]> scratch;
+
+    public PooledChunkDeserializer(ByteBufferPool pool) {
+        this.pool = pool;
+        this.scratch = new ArrayBlockingQueue<>(pool.getCapacity());
+    }
+
+    @Override
+    public ByteBuffer deserialize(InputStream inputStream) throws IOException {
+        int first = inputStream.read();
+        if (first < 0) {
+            throw new SoftEndOfStreamException("Stream closed between payloads");
+        }
+        ByteBuffer buffer = pool.acquire();
+        try {
+            buffer.put((byte) first);
+            if (buffer.hasArray()) {
+                fill(inputStream, buffer);
+            } else {
+                fillThroughScratch(inputStream, buffer);
+            }
+            buffer.flip();
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            pool.release(buffer);
+            throw e;
+        }
+    }
+
+    private static void fill(InputStream inputStream, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (n < 0) {
+                return; // Lo leído sale como último chunk; la siguiente lectura verá el cierre.
+            }
+            buffer.position(buffer.position() + n);
+        }
+    }
+
+    private void fillThroughScratch(InputStream inputStream, ByteBuffer buffer) throws IOException {
+        byte[] bytes = acquireScratch();
+        try {
+            while (buffer.hasRemaining()) {
+                int n = inputStream.read(bytes, 0, Math.min(bytes.length, buffer.remaining()));
+                if (n < 0) {
+                    return;
+                }
+                buffer.put(bytes, 0, n);
+            }
+        } finally {
+            scratch.offer(bytes);
+        }
+    }
+
+    private byte[] acquireScratch() {
+        byte[] bytes = scratch.poll();
+        return bytes != null ? bytes : new byte[pool.getBufferSize()];
+    }
+}
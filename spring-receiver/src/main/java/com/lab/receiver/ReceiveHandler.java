@@ -0,0 +1,180 @@
+package com.lab.receiver;
+
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-message work shared by both receiver engines: statistics, latency,
+ * checksum, end-of-stream detection and the disk sink. Each method returns
+ * the {@link CompletionSummary} to send back when the message ended the
+ * stream (and {@code receiver.ack.enabled}), otherwise {@code null}; how the
+ * reply is written is up to the engine.
+ * <p>
+ * Calls for one connection must come from one thread at a time.
+ */
+@Component
+public class ReceiveHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReceiveHandler.class);
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final ReceiverProperties properties;
+    private final ConnectionStatsRegistry statsRegistry;
+    private final MappedFileSink sink;
+    private final ReceiverProperties.Framing framing;
+
+    public ReceiveHandler(ReceiverProperties properties, ConnectionStatsRegistry statsRegistry, MappedFileSink sink) {
+        this.properties = properties;
+        this.statsRegistry = statsRegistry;
+        this.sink = sink;
+        this.framing = resolveFraming();
+    }
+
+    /**
+     * Framing in effect, which may differ from {@code receiver.framing}
+     * (see {@link #resolveFraming()}).
+     */
+    public ReceiverProperties.Framing getFraming() {
+        return framing;
+    }
+
+    /**
+     * A RAW chunk or, with LINE framing, one line without its {@code \n}.
+     */
+    public CompletionSummary handleChunk(String connectionId, byte[] chunkPayload) {
+        int bytesInThisMessage = chunkPayload.length;
+        // Sin log por mensaje: el volumen y los tamaños se ven en /actuator/prometheus (ReceiverMetrics).
+        if (bytesInThisMessage == 0) {
+            LOGGER.debug(">>> SERVER: Recibido mensaje vacío (Conexión {}). Ignorando para estadísticas.", connectionId);
+            return null;
+        }
+
+        boolean line = framing == ReceiverProperties.Framing.LINE;
+        // Con LINE el deserializador quitó el \n: se cuenta igualmente para cuadrar con los bytes del emisor.
+        ConnectionStats stats = statsRegistry.record(connectionId, line ? bytesInThisMessage + 1 : bytesInThisMessage);
+        if (stats == null) {
+            return null; // Conexión ya cerrada
+        }
+        boolean endOfStream;
+        if (line) {
+            stats.updateChecksum(chunkPayload, 0, bytesInThisMessage);
+            stats.updateChecksum(NEWLINE, 0, NEWLINE.length);
+            endOfStream = EndOfStreamDetector.isMarkerLine(chunkPayload);
+        } else {
+            stats.updateChecksum(chunkPayload, 0, bytesInThisMessage);
+            endOfStream = stats.getEndOfStreamDetector().update(chunkPayload, 0, bytesInThisMessage);
+        }
+        LatencyTracker latencyTracker = stats.getLatencyTracker();
+        if (latencyTracker != null && !(line && endOfStream)) {
+            latencyTracker.recordStampedLine(chunkPayload, bytesInThisMessage, stats.getLastByteNanos());
+        }
+        if (sink.isEnabled()) {
+            // El sink también repone el \n para guardar el stream tal cual llegó.
+            if (line) {
+                sink.writeLine(connectionId, chunkPayload);
+            } else {
+                sink.write(connectionId, chunkPayload);
+            }
+        }
+        logProgress(stats, bytesInThisMessage);
+        return endOfStream ? summary(stats) : null;
+    }
+
+    /**
+     * A RAW chunk in a (pooled or direct) buffer. Its position is not moved
+     * and it is not released: the caller owns it.
+     */
+    public CompletionSummary handleBuffer(String connectionId, ByteBuffer buffer) {
+        int bytesInThisMessage = buffer.remaining();
+        if (bytesInThisMessage == 0) {
+            LOGGER.debug(">>> SERVER: Recibido mensaje vacío (Conexión {}). Ignorando para estadísticas.", connectionId);
+            return null;
+        }
+        ConnectionStats stats = statsRegistry.record(connectionId, bytesInThisMessage);
+        if (stats == null) {
+            return null; // Conexión ya cerrada
+        }
+        stats.updateChecksum(buffer);
+        boolean endOfStream = stats.getEndOfStreamDetector().update(buffer);
+        if (sink.isEnabled()) {
+            sink.write(connectionId, buffer);
+        }
+        logProgress(stats, bytesInThisMessage);
+        return endOfStream ? summary(stats) : null;
+    }
+
+    public CompletionSummary handleFrame(String connectionId, Frame frame) {
+        // Se cuentan los bytes del frame completo, igual que el emisor, END incluido.
+        int bytesInThisMessage = Frame.HEADER_SIZE + frame.payload().length;
+        ConnectionStats stats = statsRegistry.record(connectionId, bytesInThisMessage);
+        if (stats == null) {
+            return null; // Conexión ya cerrada
+        }
+        if (sink.isEnabled()) {
+            sink.writeFrame(connectionId, frame);
+        }
+        stats.updateChecksum(frame);
+        if (frame.isEnd()) {
+            LOGGER.info("🏁 Frame de fin de transmisión recibido (Conexión {}, secuencia {}).", connectionId, frame.sequence());
+            return summary(stats);
+        }
+        if (frame.isAnnounce()) {
+            stats.announce(frame.announcedLength(), stats.getLastByteNanos());
+            LOGGER.info("📣 Transferencia anunciada (Conexión {}): '{}', {} bytes.", connectionId,
+                    frame.announcedName(), frame.announcedLength());
+            if (stats.getCompletedAtNanos() != 0) {
+                logTransferCompleted(stats); // Fichero vacío
+            }
+            return null;
+        }
+        if (stats.addPayload(frame.payload().length, stats.getLastByteNanos())) {
+            logTransferCompleted(stats);
+        }
+        LatencyTracker latencyTracker = stats.getLatencyTracker();
+        if (latencyTracker != null && frame.timestamp() != 0) {
+            latencyTracker.record(frame.sequence(), frame.timestamp(), stats.getLastByteNanos());
+        }
+        logProgress(stats, bytesInThisMessage);
+        return null;
+    }
+
+    /**
+     * The latency stamps need message boundaries, so the latency mode
+     * cannot work on raw chunks.
+     */
+    private ReceiverProperties.Framing resolveFraming() {
+        ReceiverProperties.Framing framing = properties.getFraming();
+        if (properties.getLatency().isEnabled() && framing == ReceiverProperties.Framing.RAW) {
+            LOGGER.warn("⚠️ receiver.latency.enabled requiere mensajes delimitados: usando framing LINE en lugar de RAW.");
+            return ReceiverProperties.Framing.LINE;
+        }
+        return framing;
+    }
+
+    private CompletionSummary summary(ConnectionStats stats) {
+        return properties.getAck().isEnabled() ? CompletionSummary.of(stats) : null;
+    }
+
+    private void logTransferCompleted(ConnectionStats stats) {
+        long durationNanos = stats.getCompletedAtNanos() - stats.getFirstByteNanos();
+        LOGGER.info("✅ Transferencia completa (Conexión {}): {} de {} bytes anunciados en {} ms ({} MB/s de payload).",
+                stats.getConnectionId(), stats.getPayloadBytes(), stats.getAnnouncedBytes(), durationNanos / 1_000_000,
+                String.format("%.2f", ConnectionStats.megabytesPerSecond(stats.getPayloadBytes(), durationNanos)));
+    }
+
+    private void logProgress(ConnectionStats stats, int bytesInThisMessage) {
+        long currentMessageCount = stats.getMessages();
+        if (currentMessageCount == 1) {
+            LOGGER.info("⏱️  Recepción de Bloque Iniciada (Conexión {})...", stats.getConnectionId());
+        }
+
+        // Progreso solo en DEBUG; el fin de la transferencia lo marca el cierre de la conexión.
+        if (currentMessageCount % 100 == 0 && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("   ... {} bytes recibidos en este Mensaje (Mensaje #{}, Conexión {}), Total acumulado: {} bytes.",
+                bytesInThisMessage, currentMessageCount, stats.getConnectionId(), stats.getBytes());
+        }
+    }
+}
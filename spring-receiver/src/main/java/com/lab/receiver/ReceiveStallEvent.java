@@ -0,0 +1,38 @@
+package com.lab.receiver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed when a connection goes longer than
+ * {@code receiver.jfr.stall-threshold-millis} without data. Not sampled:
+ * it is the receiver-side counterpart of the sender's {@code WriteStall}.
+ */
+@Name("com.lab.receiver.ReceiveStall")
+@Label("Receive Stall")
+@Category({ "Lab Perf", "Receiver" })
+@Description("Hueco entre dos chunks de la misma conexión por encima del umbral")
+@StackTrace(false)
+public class ReceiveStallEvent extends Event {
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Gap")
+    @Timespan
+    long gap;
+
+    static void emit(String connectionId, long gapNanos) {
+        ReceiveStallEvent event = new ReceiveStallEvent();
+        if (event.isEnabled()) {
+            event.connectionId = connectionId;
+            event.gap = gapNanos;
+            event.commit();
+        }
+    }
+}
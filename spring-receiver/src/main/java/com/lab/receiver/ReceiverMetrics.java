@@ -0,0 +1,224 @@
+package com.lab.receiver;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Micrometer meters of the receiver, scraped from
+ * {@code /actuator/prometheus} on localhost. Replaces the per-message log
+ * lines: the hot path only bumps counters and a histogram.
+ */
+@Component
+public class ReceiverMetrics {
+
+    private static final String CONNECTION_TAG = "connection";
+    private static final String STAT_TAG = "stat";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean perConnection;
+    private final Counter bytes;
+    private final Counter messages;
+    private final Counter opened;
+    private final Counter sinkBytes;
+    private final Counter pipelineBlocked;
+    private final Counter pipelineDropped;
+    private final Counter lateChunks;
+    private final DistributionSummary chunkSize;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final Rate bytesRate = new Rate();
+    private final Rate messagesRate = new Rate();
+    private final Map<String, List<Meter>> connectionMeters = new ConcurrentHashMap<>();
+    private final SocketBufferStats sendBuffers = new SocketBufferStats();
+    private final SocketBufferStats receiveBuffers = new SocketBufferStats();
+
+    public ReceiverMetrics(MeterRegistry meterRegistry, ReceiverProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.perConnection = properties.getMetrics().isPerConnection();
+        this.bytes = Counter.builder("receiver.bytes")
+                .baseUnit("bytes")
+                .description("Bytes recibidos")
+                .register(meterRegistry);
+        this.messages = Counter.builder("receiver.messages")
+                .description("Mensajes (chunks o frames) recibidos")
+                .register(meterRegistry);
+        this.opened = Counter.builder("receiver.connections.opened")
+                .description("Conexiones abiertas")
+                .register(meterRegistry);
+        this.sinkBytes = Counter.builder("receiver.sink.bytes")
+                .baseUnit("bytes")
+                .description("Bytes escritos en los segmentos mapeados (receiver.sink)")
+                .register(meterRegistry);
+        this.pipelineBlocked = Counter.builder("receiver.pipeline.blocked")
+                .description("Mensajes que esperaron hueco en una partición llena del pipeline")
+                .register(meterRegistry);
+        this.pipelineDropped = Counter.builder("receiver.pipeline.dropped")
+                .description("Mensajes descartados con una partición llena del pipeline")
+                .register(meterRegistry);
+        this.lateChunks = Counter.builder("receiver.chunks.late")
+                .description("Chunks descartados por llegar tras el cierre de su conexión")
+                .register(meterRegistry);
+        this.chunkSize = DistributionSummary.builder("receiver.chunk.size")
+                .baseUnit("bytes")
+                .description("Tamaño de cada mensaje recibido")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1024.0 * 1024.0)
+                .register(meterRegistry);
+        Gauge.builder("receiver.connections.active", activeConnections, AtomicInteger::get)
+                .description("Conexiones activas")
+                .register(meterRegistry);
+        Gauge.builder("receiver.throughput.bytes", this, metrics -> metrics.bytesRate.perSecond((long) metrics.bytes.count()))
+                .baseUnit("bytes")
+                .description("Bytes por segundo (último intervalo de al menos 1 s)")
+                .register(meterRegistry);
+        Gauge.builder("receiver.throughput.messages", this, metrics -> metrics.messagesRate.perSecond((long) metrics.messages.count()))
+                .description("Mensajes por segundo (último intervalo de al menos 1 s)")
+                .register(meterRegistry);
+        sendBuffers.register(meterRegistry, "receiver.so.sndbuf", "SO_SNDBUF negociado en las conexiones aceptadas");
+        receiveBuffers.register(meterRegistry, "receiver.so.rcvbuf", "SO_RCVBUF negociado en las conexiones aceptadas");
+    }
+
+    /**
+     * Hot path: accounts one received message.
+     */
+    public void recordChunk(int chunkBytes) {
+        bytes.increment(chunkBytes);
+        messages.increment();
+        chunkSize.record(chunkBytes);
+    }
+
+    public void lateChunk() {
+        lateChunks.increment();
+    }
+
+    public void recordSinkWrite(int writtenBytes) {
+        sinkBytes.increment(writtenBytes);
+    }
+
+    /**
+     * Publishes the depth of one pipeline partition queue.
+     */
+    public void pipelinePartition(int partition, Collection<?> queue) {
+        Gauge.builder("receiver.pipeline.queue.depth", queue, Collection::size)
+                .description("Mensajes pendientes en la partición del pipeline")
+                .tag("partition", Integer.toString(partition))
+                .register(meterRegistry);
+    }
+
+    public void pipelineBlocked() {
+        pipelineBlocked.increment();
+    }
+
+    public void pipelineDropped() {
+        pipelineDropped.increment();
+    }
+
+    public void connectionOpened() {
+        activeConnections.incrementAndGet();
+        opened.increment();
+    }
+
+    /**
+     * Counts the close by cause and drops the per-connection gauges.
+     */
+    public void connectionClosed(String connectionId, Throwable cause) {
+        activeConnections.decrementAndGet();
+        Counter.builder("receiver.connections.closed")
+                .description("Conexiones cerradas por causa")
+                .tag("cause", cause != null ? cause.getClass().getSimpleName() : "normal")
+                .register(meterRegistry)
+                .increment();
+        List<Meter> meters = connectionMeters.remove(connectionId);
+        if (meters != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * Folds the negotiated SO_SNDBUF/SO_RCVBUF of a connection into the
+     * min/max/last gauges and, with {@code receiver.metrics.per-connection},
+     * also publishes them tagged with the connection id until it closes.
+     */
+    public void socketBuffers(String connectionId, int sendBuffer, int receiveBuffer) {
+        sendBuffers.record(sendBuffer);
+        receiveBuffers.record(receiveBuffer);
+        if (!perConnection) {
+            return;
+        }
+        Gauge send = Gauge.builder("receiver.connection.so.sndbuf", () -> sendBuffer)
+                .baseUnit("bytes")
+                .tag(CONNECTION_TAG, connectionId)
+                .register(meterRegistry);
+        Gauge receive = Gauge.builder("receiver.connection.so.rcvbuf", () -> receiveBuffer)
+                .baseUnit("bytes")
+                .tag(CONNECTION_TAG, connectionId)
+                .register(meterRegistry);
+        connectionMeters.put(connectionId, List.of(send, receive));
+    }
+
+    /**
+     * Min, max and last value seen of one socket option (0 until the first connection).
+     */
+    private static final class SocketBufferStats {
+
+        private final AtomicInteger min = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+        private final AtomicInteger last = new AtomicInteger();
+
+        void record(int value) {
+            min.accumulateAndGet(value, (current, v) -> current == 0 ? v : Math.min(current, v));
+            max.accumulateAndGet(value, Math::max);
+            last.set(value);
+        }
+
+        void register(MeterRegistry meterRegistry, String name, String description) {
+            register(meterRegistry, name, description, "min", min);
+            register(meterRegistry, name, description, "max", max);
+            register(meterRegistry, name, description, "last", last);
+        }
+
+        private static void register(MeterRegistry meterRegistry, String name, String description, String stat,
+                AtomicInteger value) {
+            Gauge.builder(name, value, AtomicInteger::get)
+                    .baseUnit("bytes")
+                    .description(description)
+                    .tag(STAT_TAG, stat)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Rate over the interval since the previous sample, recomputed at most
+     * once per second so concurrent scrapers see the same value.
+     */
+    private static final class Rate {
+
+        private static final long MIN_INTERVAL_NANOS = 1_000_000_000L;
+
+        private long lastTotal;
+        private long lastNanos = System.nanoTime();
+        private double lastRate;
+
+        synchronized double perSecond(long total) {
+            long now = System.nanoTime();
+            long elapsed = now - lastNanos;
+            if (elapsed >= MIN_INTERVAL_NANOS) {
+                lastRate = (total - lastTotal) / (elapsed / 1_000_000_000.0);
+                lastTotal = total;
+                lastNanos = now;
+            }
+            return lastRate;
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package com.lab.receiver;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Receiver options bound from {@code receiver.*} properties
+ * (see {@code application.properties}).
+ */
+@ConfigurationProperties(prefix = "receiver")
+public class ReceiverProperties {
+
+    /**
+     * Which server reads the sockets.
+     */
+    public enum Engine {
+        /** Spring Integration TCP adapters ({@link TcpServerConfig}). */
+        SPRING,
+        /** Plain NIO selectors, one acceptor and N reactors ({@link NioReceiverEngine}). */
+        NIO
+    }
+
+    /**
+     * How the byte stream is split into messages.
+     */
+    public enum Framing {
+        /** Whatever arrives in one read ({@code ByteArrayRawSerializer}). */
+        RAW,
+        /** One message per {@code \n} terminated line ({@code ByteArrayLfSerializer}). */
+        LINE,
+        /** Length-prefixed binary frames ({@link FrameSerializer}). */
+        BINARY
+    }
+
+    /**
+     * How connections are read and which threads run the handler.
+     */
+    public enum ExecutionMode {
+        /** {@code TcpNioServerConnectionFactory} + platform threads with a concurrency limit. */
+        NIO_PLATFORM,
+        /** {@code TcpNioServerConnectionFactory} + one virtual thread per task. */
+        NIO_VIRTUAL,
+        /** {@code TcpNetServerConnectionFactory}: blocking thread-per-connection on virtual threads. */
+        BLOCKING_VIRTUAL
+    }
+
+    /**
+     * What the reader thread does when a pipeline partition is full.
+     */
+    public enum Overflow {
+        /** Wait for room: backpressure reaches the socket and the TCP window. */
+        BLOCK,
+        /** Discard the message and count it; totals and the completion summary stop matching. */
+        DROP
+    }
+
+    private Engine engine = Engine.SPRING;
+
+    private int port = 12345;
+
+    private Framing framing = Framing.RAW;
+
+    /**
+     * Largest message the serializers accept (for RAW, the largest chunk per read).
+     */
+    private int maxMessageSize = 131072;
+
+    private final Socket socket = new Socket();
+
+    private final Execution execution = new Execution();
+
+    private final Latency latency = new Latency();
+
+    private final Pool pool = new Pool();
+
+    private final Jfr jfr = new Jfr();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Sink sink = new Sink();
+
+    private final Ack ack = new Ack();
+
+    private final Pipeline pipeline = new Pipeline();
+
+    private final Nio nio = new Nio();
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public Framing getFraming() {
+        return framing;
+    }
+
+    public void setFraming(Framing framing) {
+        this.framing = framing;
+    }
+
+    public int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    public void setMaxMessageSize(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Jfr getJfr() {
+        return jfr;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public Ack getAck() {
+        return ack;
+    }
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    public Nio getNio() {
+        return nio;
+    }
+
+    /**
+     * Socket options requested for accepted connections (0 = OS default).
+     */
+    public static class Socket {
+
+        private int receiveBufferSize = 131072;
+
+        private int sendBufferSize = 131072;
+
+        public int getReceiveBufferSize() {
+            return receiveBufferSize;
+        }
+
+        public void setReceiveBufferSize(int receiveBufferSize) {
+            this.receiveBufferSize = receiveBufferSize;
+        }
+
+        public int getSendBufferSize() {
+            return sendBufferSize;
+        }
+
+        public void setSendBufferSize(int sendBufferSize) {
+            this.sendBufferSize = sendBufferSize;
+        }
+    }
+
+    /**
+     * Execution model of the TCP server.
+     */
+    public static class Execution {
+
+        private ExecutionMode mode = ExecutionMode.NIO_PLATFORM;
+
+        /**
+         * Concurrent platform threads in {@code NIO_PLATFORM} mode (-1 = unlimited).
+         */
+        private int concurrencyLimit = 10;
+
+        public ExecutionMode getMode() {
+            return mode;
+        }
+
+        public void setMode(ExecutionMode mode) {
+            this.mode = mode;
+        }
+
+        public int getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+
+        public void setConcurrencyLimit(int concurrencyLimit) {
+            this.concurrencyLimit = concurrencyLimit;
+        }
+    }
+
+    /**
+     * One-way latency measurement from sender timestamps.
+     */
+    public static class Latency {
+
+        private boolean enabled;
+
+        /**
+         * Latencies above this value are clamped into the last histogram bucket.
+         */
+        private long highestTrackableNanos = 60_000_000_000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getHighestTrackableNanos() {
+            return highestTrackableNanos;
+        }
+
+        public void setHighestTrackableNanos(long highestTrackableNanos) {
+            this.highestTrackableNanos = highestTrackableNanos;
+        }
+    }
+
+    /**
+     * Pooled receive path: RAW chunks are read into reusable {@code ByteBuffer}s
+     * instead of a new {@code byte[]} per read.
+     */
+    public static class Pool {
+
+        private boolean enabled;
+
+        private boolean direct;
+
+        /**
+         * Maximum number of pooled buffers; when all are in use a temporary buffer is allocated.
+         */
+        private int buffers = 64;
+
+        private int bufferSize = 131072;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isDirect() {
+            return direct;
+        }
+
+        public void setDirect(boolean direct) {
+            this.direct = direct;
+        }
+
+        public int getBuffers() {
+            return buffers;
+        }
+
+        public void setBuffers(int buffers) {
+            this.buffers = buffers;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+
+    /**
+     * Sampling and thresholds of the custom JFR events. The events cost
+     * nothing while no recording has them enabled.
+     */
+    public static class Jfr {
+
+        /**
+         * One {@code ChunkReceived} event per this many chunks (0 = never).
+         */
+        private int chunkSampleEvery = 1024;
+
+        /**
+         * Minimum gap between two chunks of a connection that emits a {@code ReceiveStall} event.
+         */
+        private long stallThresholdMillis = 10;
+
+        public int getChunkSampleEvery() {
+            return chunkSampleEvery;
+        }
+
+        public void setChunkSampleEvery(int chunkSampleEvery) {
+            this.chunkSampleEvery = chunkSampleEvery;
+        }
+
+        public long getStallThresholdMillis() {
+            return stallThresholdMillis;
+        }
+
+        public void setStallThresholdMillis(long stallThresholdMillis) {
+            this.stallThresholdMillis = stallThresholdMillis;
+        }
+    }
+
+    /**
+     * Micrometer options beyond what Spring Boot's {@code management.*} covers.
+     */
+    public static class Metrics {
+
+        /**
+         * Also publish SO_SNDBUF/SO_RCVBUF gauges tagged with each connection
+         * id. Off by default: with many sessions the series are unbounded.
+         */
+        private boolean perConnection;
+
+        public boolean isPerConnection() {
+            return perConnection;
+        }
+
+        public void setPerConnection(boolean perConnection) {
+            this.perConnection = perConnection;
+        }
+    }
+
+    /**
+     * Persistent sink: each connection's stream is written to memory-mapped
+     * segment files under {@code directory/<connection id>/}.
+     */
+    public static class Sink {
+
+        private boolean enabled;
+
+        private String directory = "received";
+
+        /**
+         * Size of each segment file (at most 2 GB, one mapping), mapped sparsely.
+         */
+        private int segmentSize = 64 * 1024 * 1024;
+
+        /**
+         * Group commit: interval of the periodic {@code force()} (0 = only on rollover and close).
+         */
+        private long forceIntervalMillis = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public long getForceIntervalMillis() {
+            return forceIntervalMillis;
+        }
+
+        public void setForceIntervalMillis(long forceIntervalMillis) {
+            this.forceIntervalMillis = forceIntervalMillis;
+        }
+    }
+
+    /**
+     * Completion reply: when the END marker arrives the receiver answers on
+     * the same connection with a {@link CompletionSummary}.
+     */
+    public static class Ack {
+
+        private boolean enabled = true;
+
+        /**
+         * Also compute a CRC32C of the stream (costs one pass over every byte).
+         */
+        private boolean checksum;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isChecksum() {
+            return checksum;
+        }
+
+        public void setChecksum(boolean checksum) {
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Optional stage between the TCP adapter and the handler, see
+     * {@link PartitionedPipelineChannel}.
+     */
+    public static class Pipeline {
+
+        private boolean enabled;
+
+        /**
+         * Partitions, each with its own queue and worker thread.
+         */
+        private int workers = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Messages per partition queue.
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * Most messages a worker takes from its queue per wake-up.
+         */
+        private int batchSize = 64;
+
+        private Overflow overflow = Overflow.BLOCK;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Overflow getOverflow() {
+            return overflow;
+        }
+
+        public void setOverflow(Overflow overflow) {
+            this.overflow = overflow;
+        }
+    }
+
+    /**
+     * {@link NioReceiverEngine} options ({@code receiver.engine=nio}).
+     */
+    public static class Nio {
+
+        /**
+         * Reader threads, each with its own selector and direct read buffer.
+         */
+        private int reactors = Runtime.getRuntime().availableProcessors();
+
+        public int getReactors() {
+            return reactors;
+        }
+
+        public void setReactors(int reactors) {
+            this.reactors = reactors;
+        }
+    }
+}
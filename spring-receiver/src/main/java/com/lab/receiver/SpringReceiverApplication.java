@@ -2,14 +2,16 @@ package com.lab.receiver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(ReceiverProperties.class)
 public class SpringReceiverApplication {
 
     public static void main(String[] args) {
         System.out.println("=================================================");
         System.out.println("🚀 Iniciando Servidor TCP Spring Integration...");
-        System.out.println("   Escuchando en el puerto 12345");
+        System.out.println("   Escuchando en el puerto de receiver.port (12345 por defecto)");
         System.out.println("=================================================");
         SpringApplication.run(SpringReceiverApplication.class, args);
         System.out.println("\n✅ Servidor TCP Iniciado. Esperando conexiones...");
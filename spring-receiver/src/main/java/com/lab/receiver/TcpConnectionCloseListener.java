@@ -2,16 +2,29 @@ package com.lab.receiver;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationListener;
 import org.springframework.integration.ip.tcp.connection.TcpConnectionCloseEvent;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(prefix = "receiver", name = "engine", havingValue = "spring", matchIfMissing = true)
 public class TcpConnectionCloseListener implements ApplicationListener<TcpConnectionCloseEvent> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpConnectionCloseListener.class);
 
+    private final ConnectionStatsRegistry statsRegistry;
+    private final MappedFileSink sink;
+    private final PartitionedPipelineChannel pipeline;
+
+    public TcpConnectionCloseListener(ConnectionStatsRegistry statsRegistry, MappedFileSink sink,
+            PartitionedPipelineChannel pipeline) {
+        this.statsRegistry = statsRegistry;
+        this.sink = sink;
+        this.pipeline = pipeline;
+    }
+
     @Override
     public void onApplicationEvent(@NonNull TcpConnectionCloseEvent event) {
         Throwable cause = event.getCause(); // Almacenar el resultado una sola vez
@@ -23,5 +36,12 @@ public class TcpConnectionCloseListener implements ApplicationListener<TcpConnec
              LOGGER.warn("   Stacktrace de Causa:", cause);
         }
         LOGGER.warn("-------------------------------------------------");
+
+        // Con pipeline, el cierre espera en la partición de la conexión a que se procesen sus últimos mensajes.
+        pipeline.executeInOrder(event.getConnectionId(), () -> {
+            ConnectionStats stats = statsRegistry.close(event.getConnectionId(), cause);
+            ConnectionClosedEvent.emit(event.getConnectionId(), cause, stats);
+            sink.close(event.getConnectionId(), stats);
+        });
     }
 }
\ No newline at end of file
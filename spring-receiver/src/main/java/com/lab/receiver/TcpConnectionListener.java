@@ -4,6 +4,7 @@ import java.net.SocketException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationListener;
 import org.springframework.integration.ip.tcp.connection.SocketInfo;
 import org.springframework.integration.ip.tcp.connection.TcpConnection;
@@ -12,21 +13,36 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
 /**
- * Listens for TCP connection open events to display
- * socket information, such as buffer sizes.
+ * Listens for TCP connection open events to start the
+ * per-connection statistics and display socket
+ * information, such as buffer sizes.
  */
 @Component
+@ConditionalOnProperty(prefix = "receiver", name = "engine", havingValue = "spring", matchIfMissing = true)
 public class TcpConnectionListener implements ApplicationListener<TcpConnectionOpenEvent> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpConnectionListener.class);
 
+    private final ConnectionStatsRegistry statsRegistry;
+    private final ReceiverMetrics metrics;
+
+    public TcpConnectionListener(ConnectionStatsRegistry statsRegistry, ReceiverMetrics metrics) {
+        this.statsRegistry = statsRegistry;
+        this.metrics = metrics;
+    }
+
     @Override
     public void onApplicationEvent(@NonNull TcpConnectionOpenEvent event) {
+        statsRegistry.open(event.getConnectionId());
+
         TcpConnection connection = (TcpConnection) event.getSource();
         try {
             SocketInfo socketInfo = connection.getSocketInfo();
             int sendBuffer = socketInfo.getSendBufferSize();
             int receiveBuffer = socketInfo.getReceiveBufferSize();
+            metrics.socketBuffers(event.getConnectionId(), sendBuffer, receiveBuffer);
+            ConnectionOpenedEvent.emit(event.getConnectionId(), connection.getHostAddress() + ":" + connection.getPort(),
+                    sendBuffer, receiveBuffer);
 
             LOGGER.info("-------------------------------------------------");
             LOGGER.info("ℹ️  TCP Connection Opened (Spring - ID: {})", event.getConnectionId());
@@ -1,137 +1,228 @@
 package com.lab.receiver;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.nio.ByteBuffer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.ip.tcp.TcpReceivingChannelAdapter;
+import org.springframework.integration.ip.tcp.TcpSendingMessageHandler;
 import org.springframework.integration.ip.tcp.connection.AbstractServerConnectionFactory;
+import org.springframework.integration.ip.tcp.connection.TcpNetServerConnectionFactory;
 import org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory;
+import org.springframework.integration.ip.tcp.serializer.AbstractByteArraySerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayRawSerializer;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 
+/**
+ * Spring Integration engine ({@code receiver.engine=spring}, the default):
+ * connection factory, inbound and reply adapters and the service activator.
+ */
 @Configuration
+@ConditionalOnProperty(prefix = "receiver", name = "engine", havingValue = "spring", matchIfMissing = true)
 public class TcpServerConfig {
 
     private static final Logger CLASS_LOGGER = LoggerFactory.getLogger(TcpServerConfig.class);
     private static final Logger HANDLER_LOGGER = LoggerFactory.getLogger(TcpServerConfig.class.getName() + ".MessageHandler");
 
-    private static final int PORT = 12345;
-    private static final int SPRING_BUFFER_SIZE = 131072; // Renombrado para claridad
-    private static final long EXPECTED_TOTAL_BYTES = 82178160L;
-    // Tamaño máximo de mensaje para que ByteArrayRawSerializer emita un Message.
-    // Debe ser lo suficientemente grande para un chunk de MINA, o un poco más.
-    private static final int MAX_MESSAGE_SIZE_SERIALIZER = 131072; // Ej: 128 KB, el doble del chunk de MINA
-
-    private final AtomicLong currentTotalBytesReceived = new AtomicLong(0);
-    private final AtomicInteger individualChunkCounter = new AtomicInteger(0); // Renombrado para claridad
-    private volatile long startTimeReception = 0;
+    private final ReceiverProperties properties;
+    private final ByteBufferPool bufferPool;
+    private final MappedFileSink sink;
+    private final ReceiveHandler receiveHandler;
+    private final ReceiverProperties.Framing framing;
+
+    public TcpServerConfig(ReceiverProperties properties, ByteBufferPool bufferPool, MappedFileSink sink,
+            ReceiveHandler receiveHandler) {
+        this.properties = properties;
+        this.bufferPool = bufferPool;
+        this.sink = sink;
+        this.receiveHandler = receiveHandler;
+        this.framing = receiveHandler.getFraming();
+    }
 
     @Bean
     public AbstractServerConnectionFactory serverConnectionFactory() {
-        TcpNioServerConnectionFactory factory = new TcpNioServerConnectionFactory(PORT);
+        ReceiverProperties.Execution execution = properties.getExecution();
+        // Puerto, búferes y tamaño máximo vienen de receiver.* para poder barrerlos (ver benchmarks/SweepHarness).
+        int port = properties.getPort();
+        int maxMessageSize = properties.getMaxMessageSize();
+        ReceiverProperties.Socket socket = properties.getSocket();
+        AbstractServerConnectionFactory factory = (execution.getMode() == ReceiverProperties.ExecutionMode.BLOCKING_VIRTUAL)
+                ? new TcpNetServerConnectionFactory(port)
+                : new TcpNioServerConnectionFactory(port);
         
-        ByteArrayRawSerializer serializer = new ByteArrayRawSerializer();
-        // *** CAMBIO IMPORTANTE: Establecer un maxMessageSize razonable ***
-        serializer.setMaxMessageSize(MAX_MESSAGE_SIZE_SERIALIZER); 
-
-        factory.setSerializer(serializer);
-        factory.setDeserializer(serializer);
+        if (framing == ReceiverProperties.Framing.BINARY) {
+            FrameSerializer serializer = new FrameSerializer(maxMessageSize);
+            factory.setSerializer(serializer);
+            factory.setDeserializer(serializer);
+        } else if (framing == ReceiverProperties.Framing.RAW && properties.getPool().isEnabled()) {
+            // Lecturas RAW sobre buffers del pool en lugar de un byte[] nuevo por chunk.
+            factory.setSerializer(new ByteArrayRawSerializer());
+            factory.setDeserializer(new PooledChunkDeserializer(bufferPool));
+        } else {
+            AbstractByteArraySerializer serializer = (framing == ReceiverProperties.Framing.LINE)
+                    ? new ByteArrayLfSerializer()
+                    : new ByteArrayRawSerializer();
+            // *** CAMBIO IMPORTANTE: Establecer un maxMessageSize razonable ***
+            serializer.setMaxMessageSize(maxMessageSize);
+
+            factory.setSerializer(serializer);
+            factory.setDeserializer(serializer);
+        }
         
         factory.setSoTimeout(60000); 
-        factory.setSoReceiveBufferSize(SPRING_BUFFER_SIZE);
-        factory.setSoSendBufferSize(SPRING_BUFFER_SIZE);
+        // 0 = no se toca la opción y el SO aplica su valor por defecto (y su autoajuste).
+        if (socket.getReceiveBufferSize() > 0) {
+            factory.setSoReceiveBufferSize(socket.getReceiveBufferSize());
+        }
+        if (socket.getSendBufferSize() > 0) {
+            factory.setSoSendBufferSize(socket.getSendBufferSize());
+        }
 
         SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("tcp-server-io-");
-        taskExecutor.setConcurrencyLimit(10); 
+        if (execution.getMode() == ReceiverProperties.ExecutionMode.NIO_PLATFORM) {
+            taskExecutor.setConcurrencyLimit(execution.getConcurrencyLimit());
+        } else {
+            // Un hilo virtual por tarea: sin límite de concurrencia.
+            taskExecutor.setVirtualThreads(true);
+        }
         factory.setTaskExecutor(taskExecutor);
 
-        CLASS_LOGGER.info("-> Fábrica de Conexiones TCP Creada en Puerto {} (Raw Serializer)", PORT);
-        CLASS_LOGGER.info("   -> Búfer Solicitado Envío/Recepción: {} bytes", SPRING_BUFFER_SIZE);
+        CLASS_LOGGER.info("-> Fábrica de Conexiones TCP Creada en Puerto {} ({} Serializer)", port, framing);
+        CLASS_LOGGER.info("   -> Modo de ejecución: {} ({}{})", execution.getMode(), factory.getClass().getSimpleName(),
+                execution.getMode() == ReceiverProperties.ExecutionMode.NIO_PLATFORM
+                        ? ", límite de concurrencia " + execution.getConcurrencyLimit()
+                        : ", hilos virtuales");
+        CLASS_LOGGER.info("   -> Búfer Solicitado Envío/Recepción: {} / {} bytes (0 = defecto del SO)",
+                socket.getSendBufferSize(), socket.getReceiveBufferSize());
         CLASS_LOGGER.info("   -> SO_TIMEOUT: {} ms", factory.getSoTimeout());
-        CLASS_LOGGER.info("   -> RawSerializer MaxMessageSize: {} bytes", MAX_MESSAGE_SIZE_SERIALIZER);
+        CLASS_LOGGER.info("   -> Serializer MaxMessageSize: {} bytes", maxMessageSize);
+        CLASS_LOGGER.info("   -> Latencia one-way: {}", properties.getLatency().isEnabled() ? "activada" : "desactivada");
+        CLASS_LOGGER.info("   -> Sink a disco: {}", sink.isEnabled() ? properties.getSink().getDirectory() : "desactivado");
+        CLASS_LOGGER.info("   -> Respuesta de fin de transmisión: {}", !properties.getAck().isEnabled() ? "desactivada"
+                : properties.getAck().isChecksum() ? "activada con CRC32C" : "activada");
+        logPoolMode();
         return factory;
     }
 
+    private void logPoolMode() {
+        ReceiverProperties.Pool pool = properties.getPool();
+        if (!pool.isEnabled()) {
+            CLASS_LOGGER.info("   -> Recepción: byte[] nuevo por chunk");
+        } else if (framing != ReceiverProperties.Framing.RAW) {
+            CLASS_LOGGER.warn("⚠️ receiver.pool.enabled solo aplica al framing RAW: se ignora con {}.", framing);
+        } else {
+            CLASS_LOGGER.info("   -> Recepción: pool de {} buffers {} de {} bytes", pool.getBuffers(),
+                    pool.isDirect() ? "direct" : "heap", pool.getBufferSize());
+        }
+    }
+
     @Bean
     public MessageChannel inboundTcpChannel() {
         return new DirectChannel();
     }
 
+    /**
+     * Stage between the adapter and {@code inboundTcpChannel}: with
+     * {@code receiver.pipeline.enabled} the handler runs on the pipeline
+     * workers instead of the thread reading the socket. When disabled the
+     * adapter skips it; it is still used to order connection close work.
+     */
+    @Bean
+    public PartitionedPipelineChannel tcpPipelineChannel(MessageChannel inboundTcpChannel, ReceiverMetrics metrics) {
+        ReceiverProperties.Pipeline pipeline = properties.getPipeline();
+        PartitionedPipelineChannel channel = new PartitionedPipelineChannel(pipeline, inboundTcpChannel, bufferPool, metrics);
+        if (channel.isEnabled()) {
+            CLASS_LOGGER.info("-> Pipeline de procesamiento: {} particiones por conexión, colas de {} mensajes, lotes de {}, si se llena: {}",
+                    channel.getPartitions(), pipeline.getQueueCapacity(), pipeline.getBatchSize(), pipeline.getOverflow());
+        } else {
+            CLASS_LOGGER.info("-> Pipeline de procesamiento: desactivado (el handler corre en el hilo lector)");
+        }
+        return channel;
+    }
+
     @Bean
-    public TcpReceivingChannelAdapter inboundAdapter(AbstractServerConnectionFactory serverConnectionFactory, MessageChannel inboundTcpChannel) {
+    public TcpReceivingChannelAdapter inboundAdapter(AbstractServerConnectionFactory serverConnectionFactory,
+            PartitionedPipelineChannel tcpPipelineChannel, MessageChannel inboundTcpChannel) {
         TcpReceivingChannelAdapter adapter = new TcpReceivingChannelAdapter();
         adapter.setConnectionFactory(serverConnectionFactory);
-        adapter.setOutputChannel(inboundTcpChannel);
+        // Sin pipeline no hay salto intermedio: el adaptador entrega directamente al handler.
+        adapter.setOutputChannel(tcpPipelineChannel.isEnabled() ? tcpPipelineChannel : inboundTcpChannel);
         CLASS_LOGGER.info("-> Adaptador TCP Receptor Creado.");
         return adapter;
     }
 
+    @Bean
+    public MessageChannel tcpReplyChannel() {
+        return new DirectChannel();
+    }
+
+    /**
+     * Outbound side of the same server factory: messages on
+     * {@code tcpReplyChannel} go back to the connection named in their
+     * {@code ip_connectionId} header.
+     */
+    @Bean
+    @ServiceActivator(inputChannel = "tcpReplyChannel")
+    public TcpSendingMessageHandler outboundAdapter(AbstractServerConnectionFactory serverConnectionFactory) {
+        TcpSendingMessageHandler handler = new TcpSendingMessageHandler();
+        handler.setConnectionFactory(serverConnectionFactory);
+        CLASS_LOGGER.info("-> Adaptador TCP de Respuesta Creado.");
+        return handler;
+    }
+
     @ServiceActivator(inputChannel = "inboundTcpChannel")
-    public void handleMessage(Message<byte[]> message) {
-        byte[] chunkPayload = message.getPayload(); // Renombrado para claridad
-        long bytesInThisMessage = chunkPayload.length;
-        HANDLER_LOGGER.info(">>> SERVER: handleMessage LLAMADO con un Mensaje de {} bytes", bytesInThisMessage);
-
-        if (bytesInThisMessage == 0 && currentTotalBytesReceived.get() == 0 && startTimeReception == 0) {
-            HANDLER_LOGGER.warn(">>> SERVER: Recibido mensaje vacío inicial. Ignorando para estadísticas.");
-            return; 
+    public void handleMessage(Message<?> message) {
+        String connectionId = message.getHeaders().get(IpHeaders.CONNECTION_ID, String.class);
+        CompletionSummary summary;
+        if (message.getPayload() instanceof Frame frame) {
+            summary = receiveHandler.handleFrame(connectionId, frame);
+        } else if (message.getPayload() instanceof ByteBuffer buffer) {
+            try {
+                summary = receiveHandler.handleBuffer(connectionId, buffer);
+            } finally {
+                // El procesamiento termina aquí: el buffer vuelve al pool.
+                bufferPool.release(buffer);
+            }
+        } else {
+            summary = receiveHandler.handleChunk(connectionId, (byte[]) message.getPayload());
         }
-        
-        if (startTimeReception == 0 && bytesInThisMessage > 0) { 
-            startTimeReception = System.nanoTime();
-            HANDLER_LOGGER.info("⏱️  Recepción de Bloque Iniciada...");
+        if (summary != null) {
+            acknowledge(connectionId, summary);
         }
+    }
 
-        long newTotal = currentTotalBytesReceived.addAndGet(bytesInThisMessage);
-        int currentMessageCount = individualChunkCounter.incrementAndGet(); // Usar el contador renombrado
-
-        // Loguear progreso cada X mensajes recibidos por handleMessage
-        if (bytesInThisMessage > 0 && currentMessageCount % 100 == 0 && newTotal < EXPECTED_TOTAL_BYTES) {
-            HANDLER_LOGGER.info("   ... {} bytes recibidos en este Mensaje (Mensaje #{}), Total acumulado: {} bytes.",
-                bytesInThisMessage, currentMessageCount, newTotal);
+    /**
+     * Replies to the end of the stream with the {@link CompletionSummary},
+     * encoded for the connection's framing.
+     */
+    private void acknowledge(String connectionId, CompletionSummary summary) {
+        if (connectionId == null) {
+            return;
         }
-
-        boolean allBytesExpected = (newTotal >= EXPECTED_TOTAL_BYTES);
-        // EOF lo manejaremos por el cierre de conexión del cliente
-        // No esperamos un mensaje de 0 bytes para finalizar si ya se alcanzó el total.
-
-        if (allBytesExpected) {
-            long endTimeReception = System.nanoTime();
-            if (startTimeReception == 0) { 
-                 HANDLER_LOGGER.error("Error: Finalizando estadísticas pero startTimeReception es 0.");
-                 currentTotalBytesReceived.set(0);
-                 individualChunkCounter.set(0);
-                 return;
-            }
-            long duration = endTimeReception - startTimeReception;
-            long finalTotalBytes = currentTotalBytesReceived.get(); 
-
-            double durationSeconds = duration / 1_000_000_000.0;
-            double megabytes = finalTotalBytes / (1024.0 * 1024.0);
-            double mbps = (durationSeconds > 0) ? megabytes / durationSeconds : 0;
-            double mbitps = mbps * 8;
-            double averageBytesPerMessage = (currentMessageCount > 0) ? (double) finalTotalBytes / currentMessageCount : 0;
-
-            HANDLER_LOGGER.info("-------------------------------------------------");
-            HANDLER_LOGGER.info("📊 Recepción de Bloque Completada:");
-            HANDLER_LOGGER.info("   Velocidad: {} MB/s ({} Mbps)", String.format("%.2f", mbps), String.format("%.2f", mbitps));
-            HANDLER_LOGGER.info("--- ESTADÍSTICAS REQUERIDAS (Bloque) ---");
-            HANDLER_LOGGER.info("   Total sum of read bytes: {}", finalTotalBytes);
-            HANDLER_LOGGER.info("   Number of messages processed: {}", currentMessageCount); 
-            HANDLER_LOGGER.info("   average bytes per message: {}", String.format("%.2f", averageBytesPerMessage));
-            HANDLER_LOGGER.info("-------------------------------------------------");
-
-            startTimeReception = 0;
-            currentTotalBytesReceived.set(0);
-            individualChunkCounter.set(0);
+        // LINE: el serializador LF añade el delimitador. RAW: se escribe tal cual, así que va incluido.
+        Object payload = switch (framing) {
+            case BINARY -> summary.toFrame();
+            case LINE -> summary.toLineBytes(false);
+            case RAW -> summary.toLineBytes(true);
+        };
+        try {
+            tcpReplyChannel().send(MessageBuilder.withPayload(payload)
+                    .setHeader(IpHeaders.CONNECTION_ID, connectionId)
+                    .build());
+            HANDLER_LOGGER.info("📨 Resumen enviado al emisor (Conexión {}): {}", connectionId, summary.toLine());
+        } catch (RuntimeException e) {
+            // El emisor puede haber cerrado ya: la recepción no debe fallar por la respuesta.
+            HANDLER_LOGGER.warn("⚠️ No se pudo enviar el resumen (Conexión {}): {}", connectionId, e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConnectionStatsRegistryTest {
+
+    private AllocationMonitor allocationMonitor;
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionStatsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ReceiverProperties properties = new ReceiverProperties();
+        allocationMonitor = mock(AllocationMonitor.class);
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ConnectionStatsRegistry(properties, allocationMonitor, new ByteBufferPool(properties),
+                new ReceiverMetrics(meterRegistry, properties));
+    }
+
+    @Test
+    void chunkBeforeOpenEventRegistersTheConnection() {
+        ConnectionStats stats = registry.record("c1", 100);
+
+        assertThat(stats).isNotNull();
+        assertThat(stats.getBytes()).isEqualTo(100);
+        assertThat(registry.getActiveConnections()).isEqualTo(1);
+        verify(allocationMonitor).startSession();
+    }
+
+    @Test
+    void chunkAfterCloseIsDroppedInsteadOfReopening() {
+        registry.open("c1");
+        registry.record("c1", 100);
+        ConnectionStats closed = registry.close("c1", null);
+
+        assertThat(registry.record("c1", 50)).isNull();
+        assertThat(closed.getBytes()).isEqualTo(100);
+        assertThat(registry.getActiveConnections()).isZero();
+        assertThat(registry.get("c1")).isNull();
+        assertThat(registry.getLateChunks()).isEqualTo(1);
+        assertThat(meterRegistry.counter("receiver.chunks.late").count()).isEqualTo(1.0);
+        verify(allocationMonitor, times(1)).startSession();
+        verify(allocationMonitor).logSessionReport(100);
+    }
+}
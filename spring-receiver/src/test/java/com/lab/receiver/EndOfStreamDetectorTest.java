@@ -0,0 +1,66 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class EndOfStreamDetectorTest {
+
+    private static final byte[] STREAM = ("datos\n" + EndOfStreamDetector.MARKER + "\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void detectsMarkerSplitAtEveryPointInArrays() {
+        for (int split = 1; split < STREAM.length; split++) {
+            EndOfStreamDetector detector = new EndOfStreamDetector();
+
+            assertThat(detector.update(STREAM, 0, split)).as("split %d, first chunk", split).isFalse();
+            assertThat(detector.update(STREAM, split, STREAM.length - split)).as("split %d", split).isTrue();
+        }
+    }
+
+    @Test
+    void detectsMarkerSplitAtEveryPointInBuffers() {
+        for (int split = 1; split < STREAM.length; split++) {
+            EndOfStreamDetector detector = new EndOfStreamDetector();
+            ByteBuffer first = ByteBuffer.allocateDirect(split).put(STREAM, 0, split).flip();
+            ByteBuffer second = ByteBuffer.allocateDirect(STREAM.length - split)
+                    .put(STREAM, split, STREAM.length - split).flip();
+
+            assertThat(detector.update(first)).as("split %d, first chunk", split).isFalse();
+            assertThat(detector.update(second)).as("split %d", split).isTrue();
+            assertThat(second.position()).isZero();
+        }
+    }
+
+    @Test
+    void detectsMarkerFedOneByteAtATime() {
+        EndOfStreamDetector detector = new EndOfStreamDetector();
+        boolean ended = false;
+
+        for (int i = 0; i < STREAM.length; i++) {
+            assertThat(ended).isFalse();
+            ended = detector.update(STREAM, i, 1);
+        }
+
+        assertThat(ended).isTrue();
+    }
+
+    @Test
+    void ignoresMarkerThatIsNotTheTail() {
+        EndOfStreamDetector detector = new EndOfStreamDetector();
+
+        assertThat(detector.update(STREAM, 0, STREAM.length)).isTrue();
+        assertThat(detector.update(new byte[] { 'x' }, 0, 1)).isFalse();
+    }
+
+    @Test
+    void matchesWholeMarkerLine() {
+        assertThat(EndOfStreamDetector.isMarkerLine(EndOfStreamDetector.MARKER.getBytes(StandardCharsets.US_ASCII)))
+                .isTrue();
+        assertThat(EndOfStreamDetector.isMarkerLine("END".getBytes(StandardCharsets.US_ASCII))).isFalse();
+    }
+}
@@ -0,0 +1,106 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+
+class FrameSerializerTest {
+
+    private final FrameSerializer serializer = new FrameSerializer(1024);
+
+    @Test
+    void roundTrip() throws IOException {
+        Frame frame = new Frame(Frame.TYPE_DATA, 42, 123_456_789L, "payload".getBytes(StandardCharsets.US_ASCII));
+
+        Frame decoded = serializer.deserialize(new ByteArrayInputStream(serialize(frame)));
+
+        assertFrameEquals(frame, decoded);
+    }
+
+    @Test
+    void writeHeaderMatchesSerialize() throws IOException {
+        Frame frame = new Frame(Frame.TYPE_END, 7, 9, new byte[0]);
+        byte[] header = new byte[Frame.HEADER_SIZE];
+
+        FrameSerializer.writeHeader(frame, header);
+
+        assertThat(header).isEqualTo(serialize(frame));
+    }
+
+    @Test
+    void headerAndPayloadSplitAcrossReads() throws IOException {
+        Frame first = new Frame(Frame.TYPE_DATA, 1, 5, new byte[] { 10, 20, 30, 40, 50 });
+        Frame end = new Frame(Frame.TYPE_END, 1, 0, new byte[0]);
+        byte[] wire = concat(serialize(first), serialize(end));
+
+        // Como un socket: cada read() devuelve como mucho 3 bytes.
+        InputStream trickle = new ByteArrayInputStream(wire) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+
+        assertFrameEquals(first, serializer.deserialize(trickle));
+        assertFrameEquals(end, serializer.deserialize(trickle));
+        assertThatThrownBy(() -> serializer.deserialize(trickle)).isInstanceOf(SoftEndOfStreamException.class);
+    }
+
+    @Test
+    void streamClosedInsideHeaderIsAnError() throws IOException {
+        byte[] wire = serialize(new Frame(Frame.TYPE_DATA, 1, 0, new byte[] { 1 }));
+
+        InputStream truncated = new ByteArrayInputStream(Arrays.copyOf(wire, 10));
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated))
+                .isInstanceOf(EOFException.class)
+                .isNotInstanceOf(SoftEndOfStreamException.class);
+    }
+
+    @Test
+    void streamClosedInsidePayloadIsAnError() throws IOException {
+        byte[] wire = serialize(new Frame(Frame.TYPE_DATA, 1, 0, new byte[] { 1, 2, 3, 4 }));
+
+        InputStream truncated = new ByteArrayInputStream(Arrays.copyOf(wire, wire.length - 1));
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void rejectsOversizedLength() throws IOException {
+        byte[] wire = serialize(new Frame(Frame.TYPE_DATA, 1, 0, new byte[2048]));
+
+        assertThatThrownBy(() -> serializer.deserialize(new ByteArrayInputStream(wire)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Invalid frame length");
+    }
+
+    private static byte[] serialize(Frame frame) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameSerializer(Integer.MAX_VALUE).serialize(frame, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    private static void assertFrameEquals(Frame expected, Frame actual) {
+        assertThat(actual.type()).isEqualTo(expected.type());
+        assertThat(actual.sequence()).isEqualTo(expected.sequence());
+        assertThat(actual.timestamp()).isEqualTo(expected.timestamp());
+        assertThat(actual.payload()).isEqualTo(expected.payload());
+    }
+}
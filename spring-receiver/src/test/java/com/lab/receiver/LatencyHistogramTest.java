@@ -0,0 +1,69 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram(SECOND);
+
+        assertThat(histogram.getTotalCount()).isZero();
+        assertThat(histogram.getValueAtPercentile(99.0)).isZero();
+        assertThat(histogram.getMaxValue()).isZero();
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram(SECOND);
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.getValueAtPercentile(50.0)).isEqualTo(50);
+        assertThat(histogram.getValueAtPercentile(99.0)).isEqualTo(99);
+        assertThat(histogram.getValueAtPercentile(100.0)).isEqualTo(100);
+        assertThat(histogram.getMaxValue()).isEqualTo(100);
+    }
+
+    @Test
+    void percentilesStayWithinTheRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram(SECOND);
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertThat((double) histogram.getValueAtPercentile(50.0)).isCloseTo(50_000_000, within(50_000_000 * 0.016));
+        assertThat((double) histogram.getValueAtPercentile(99.0)).isCloseTo(99_000_000, within(99_000_000 * 0.016));
+        assertThat((double) histogram.getValueAtPercentile(99.9)).isCloseTo(99_900_000, within(99_900_000 * 0.016));
+        assertThat(histogram.getValueAtPercentile(100.0)).isEqualTo(100_000_000);
+        assertThat(histogram.getTotalCount()).isEqualTo(100_000);
+    }
+
+    @Test
+    void valuesAboveTheRangeAreClampedToTheHighestTrackable() {
+        LatencyHistogram histogram = new LatencyHistogram(SECOND);
+        histogram.record(10);
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(5 * SECOND);
+
+        assertThat(histogram.getTotalCount()).isEqualTo(3);
+        assertThat(histogram.getMaxValue()).isEqualTo(SECOND);
+        assertThat(histogram.getValueAtPercentile(100.0)).isEqualTo(SECOND);
+        assertThat(histogram.getValueAtPercentile(10.0)).isEqualTo(10);
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram(SECOND);
+        histogram.record(-500);
+
+        assertThat(histogram.getTotalCount()).isEqualTo(1);
+        assertThat(histogram.getValueAtPercentile(50.0)).isZero();
+    }
+}
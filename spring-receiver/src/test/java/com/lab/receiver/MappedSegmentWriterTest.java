@@ -0,0 +1,133 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSegmentWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rollsOverToNewSegmentsWhenFull() throws IOException {
+        MappedSegmentWriter writer = new MappedSegmentWriter(directory, 16);
+        byte[] data = bytes(40);
+
+        writer.write(data, 0, 25);
+        writer.write(ByteBuffer.wrap(data, 25, 15));
+        writer.close();
+
+        assertThat(writer.getSegments()).isEqualTo(3);
+        assertThat(writer.getBytesWritten()).isEqualTo(40);
+        assertThat(Files.size(segment(0))).isEqualTo(16);
+        assertThat(Files.size(segment(1))).isEqualTo(16);
+        assertThat(readAll(3)).isEqualTo(data);
+    }
+
+    @Test
+    void closeTruncatesLastSegmentToBytesWritten() throws IOException {
+        MappedSegmentWriter writer = new MappedSegmentWriter(directory, 1024);
+
+        writer.writeLine("hola".getBytes());
+        writer.force();
+        writer.close();
+
+        assertThat(Files.size(segment(0))).isEqualTo(5);
+        assertThat(Files.readAllBytes(segment(0))).isEqualTo("hola\n".getBytes());
+        assertThat(writer.getForces()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void writeBufferDoesNotMoveSourcePosition() throws IOException {
+        MappedSegmentWriter writer = new MappedSegmentWriter(directory, 8);
+        ByteBuffer source = ByteBuffer.allocateDirect(12).put(bytes(12)).flip();
+
+        writer.write(source);
+        writer.close();
+
+        assertThat(source.position()).isZero();
+        assertThat(readAll(2)).isEqualTo(bytes(12));
+    }
+
+    @Test
+    void writeAfterCloseFails() {
+        MappedSegmentWriter writer = new MappedSegmentWriter(directory, 16);
+        writer.write(bytes(4), 0, 4);
+        writer.close();
+
+        assertThatThrownBy(() -> writer.write(bytes(4), 0, 4)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> writer.write(ByteBuffer.wrap(bytes(4)))).isInstanceOf(IllegalStateException.class);
+        writer.force();
+        writer.close();
+    }
+
+    @Test
+    void closeWithoutWritesCreatesNoSegment() {
+        MappedSegmentWriter writer = new MappedSegmentWriter(directory.resolve("vacio"), 16);
+
+        writer.close();
+
+        assertThat(writer.getSegments()).isZero();
+        assertThat(Files.exists(directory.resolve("vacio"))).isFalse();
+    }
+
+    @Test
+    void closeWaitsForWriteInProgressOnAnotherThread() throws Exception {
+        MappedSegmentWriter writer = new MappedSegmentWriter(directory, 4096);
+        byte[] chunk = bytes(100);
+        CountDownLatch writing = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread connection = new Thread(() -> {
+            try {
+                while (true) {
+                    writer.write(chunk, 0, chunk.length);
+                    writing.countDown();
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        connection.start();
+        writing.await();
+        writer.close();
+        connection.join();
+
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class);
+        long bytes = writer.getBytesWritten();
+        assertThat(bytes % chunk.length).isZero();
+        int segments = writer.getSegments();
+        assertThat(Files.size(segment(segments - 1))).isEqualTo(bytes - (long) (segments - 1) * 4096);
+    }
+
+    private Path segment(int index) {
+        return directory.resolve(String.format("segment-%05d.dat", index));
+    }
+
+    private byte[] readAll(int segments) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < segments; i++) {
+            out.write(Files.readAllBytes(segment(i)));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,172 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.ip.IpHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PartitionedPipelineChannelTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReceiverMetrics metrics = new ReceiverMetrics(meterRegistry, new ReceiverProperties());
+    private final ByteBufferPool bufferPool = mock(ByteBufferPool.class);
+    private final ReceiverProperties.Pipeline pipeline = new ReceiverProperties.Pipeline();
+    private PartitionedPipelineChannel channel;
+
+    @AfterEach
+    void shutdown() {
+        if (channel != null) {
+            channel.shutdown();
+        }
+    }
+
+    @Test
+    void keepsPerConnectionOrderAndRunsCloseWorkLast() throws InterruptedException {
+        pipeline.setEnabled(true);
+        pipeline.setWorkers(3);
+        pipeline.setQueueCapacity(16);
+        pipeline.setBatchSize(4);
+        Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        channel = new PartitionedPipelineChannel(pipeline, (message, timeout) -> {
+            received.computeIfAbsent(connectionId(message), id -> new ArrayList<>()).add((Integer) message.getPayload());
+            return true;
+        }, bufferPool, metrics);
+
+        int connections = 8;
+        int perConnection = 500;
+        for (int i = 0; i < perConnection; i++) {
+            for (int c = 0; c < connections; c++) {
+                assertThat(channel.send(message("c" + c, i))).isTrue();
+            }
+        }
+        CountDownLatch closed = new CountDownLatch(connections);
+        Map<String, Integer> seenAtClose = new ConcurrentHashMap<>();
+        for (int c = 0; c < connections; c++) {
+            String id = "c" + c;
+            channel.executeInOrder(id, () -> {
+                seenAtClose.put(id, received.get(id).size());
+                closed.countDown();
+            });
+        }
+
+        assertThat(closed.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int c = 0; c < connections; c++) {
+            List<Integer> sequence = received.get("c" + c);
+            assertThat(sequence).hasSize(perConnection);
+            for (int i = 0; i < perConnection; i++) {
+                assertThat(sequence.get(i)).isEqualTo(i);
+            }
+            assertThat(seenAtClose.get("c" + c)).isEqualTo(perConnection);
+        }
+    }
+
+    @Test
+    void dropReleasesPooledBufferAndCountsIt() throws InterruptedException {
+        pipeline.setOverflow(ReceiverProperties.Overflow.DROP);
+        CountDownLatch release = fillSinglePartition();
+
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        assertThat(channel.send(message("c1", buffer))).isTrue();
+
+        verify(bufferPool).release(buffer);
+        assertThat(meterRegistry.get("receiver.pipeline.dropped").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void blockWithTimeoutGivesUpAndReleasesBuffer() throws InterruptedException {
+        pipeline.setOverflow(ReceiverProperties.Overflow.BLOCK);
+        CountDownLatch release = fillSinglePartition();
+
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        long start = System.nanoTime();
+        assertThat(channel.send(message("c1", buffer), 50)).isFalse();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        verify(bufferPool).release(buffer);
+        assertThat(meterRegistry.get("receiver.pipeline.blocked").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void blockWithoutTimeoutWaitsForRoom() throws InterruptedException {
+        pipeline.setOverflow(ReceiverProperties.Overflow.BLOCK);
+        CountDownLatch release = fillSinglePartition();
+
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        Thread reader = new Thread(() -> channel.send(message("c1", buffer)));
+        reader.start();
+        reader.join(100);
+        assertThat(reader.isAlive()).isTrue();
+
+        release.countDown();
+        reader.join(5000);
+        assertThat(reader.isAlive()).isFalse();
+        verify(bufferPool, never()).release(buffer);
+        assertThat(meterRegistry.get("receiver.pipeline.blocked").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledPipelineRunsInlineOnCallerThread() {
+        List<Thread> threads = new ArrayList<>();
+        MessageChannel downstream = (message, timeout) -> threads.add(Thread.currentThread());
+        channel = new PartitionedPipelineChannel(pipeline, downstream, bufferPool, metrics);
+
+        assertThat(channel.isEnabled()).isFalse();
+        assertThat(channel.send(message("c1", 1))).isTrue();
+        channel.executeInOrder("c1", () -> threads.add(Thread.currentThread()));
+
+        assertThat(threads).containsExactly(Thread.currentThread(), Thread.currentThread());
+    }
+
+    /**
+     * One partition of capacity one: the worker is held inside the first
+     * message and the second fills the queue, so the next send overflows.
+     */
+    private CountDownLatch fillSinglePartition() throws InterruptedException {
+        pipeline.setEnabled(true);
+        pipeline.setWorkers(1);
+        pipeline.setQueueCapacity(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        channel = new PartitionedPipelineChannel(pipeline, (message, timeout) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }, bufferPool, metrics);
+
+        assertThat(channel.send(message("c1", 0))).isTrue();
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(channel.send(message("c1", 1))).isTrue();
+        return release;
+    }
+
+    private static Message<Object> message(String connectionId, Object payload) {
+        return MessageBuilder.withPayload(payload).setHeader(IpHeaders.CONNECTION_ID, connectionId).build();
+    }
+
+    private static String connectionId(Message<?> message) {
+        return message.getHeaders().get(IpHeaders.CONNECTION_ID, String.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+
+class PooledChunkDeserializerTest {
+
+    private static final int BUFFER_SIZE = 16;
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void fillsWholeBuffersEvenWhenNothingIsAvailable(boolean direct) throws IOException {
+        ByteBufferPool pool = pool(direct);
+        PooledChunkDeserializer deserializer = new PooledChunkDeserializer(pool);
+        byte[] wire = new byte[40];
+        for (int i = 0; i < wire.length; i++) {
+            wire[i] = (byte) i;
+        }
+        // Como un socket lento: available() siempre 0 y cada read() devuelve un byte.
+        InputStream trickle = new ByteArrayInputStream(wire) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+
+        ByteBuffer first = deserializer.deserialize(trickle);
+        ByteBuffer second = deserializer.deserialize(trickle);
+        ByteBuffer last = deserializer.deserialize(trickle);
+
+        assertThat(first.remaining()).isEqualTo(BUFFER_SIZE);
+        assertThat(second.remaining()).isEqualTo(BUFFER_SIZE);
+        assertThat(last.remaining()).isEqualTo(wire.length - 2 * BUFFER_SIZE);
+        assertThat(first.get(0)).isEqualTo((byte) 0);
+        assertThat(second.get(0)).isEqualTo((byte) BUFFER_SIZE);
+        assertThat(last.get(last.limit() - 1)).isEqualTo((byte) (wire.length - 1));
+        assertThat(first.isDirect()).isEqualTo(direct);
+        assertThatThrownBy(() -> deserializer.deserialize(trickle)).isInstanceOf(SoftEndOfStreamException.class);
+    }
+
+    private static ByteBufferPool pool(boolean direct) {
+        ReceiverProperties properties = new ReceiverProperties();
+        properties.getPool().setDirect(direct);
+        properties.getPool().setBufferSize(BUFFER_SIZE);
+        properties.getPool().setBuffers(4);
+        return new ByteBufferPool(properties);
+    }
+}
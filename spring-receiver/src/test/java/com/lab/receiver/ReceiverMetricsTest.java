@@ -0,0 +1,46 @@
+package com.lab.receiver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReceiverMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReceiverProperties properties = new ReceiverProperties();
+
+    @Test
+    void socketBuffersAreAggregatedByDefault() {
+        ReceiverMetrics metrics = new ReceiverMetrics(meterRegistry, properties);
+
+        metrics.socketBuffers("c1", 65536, 131072);
+        metrics.socketBuffers("c2", 262144, 65536);
+        metrics.socketBuffers("c3", 131072, 131072);
+
+        assertThat(gauge("receiver.so.sndbuf", "min")).isEqualTo(65536);
+        assertThat(gauge("receiver.so.sndbuf", "max")).isEqualTo(262144);
+        assertThat(gauge("receiver.so.sndbuf", "last")).isEqualTo(131072);
+        assertThat(gauge("receiver.so.rcvbuf", "min")).isEqualTo(65536);
+        assertThat(meterRegistry.find("receiver.connection.so.sndbuf").gauges()).isEmpty();
+    }
+
+    @Test
+    void perConnectionGaugesLiveUntilTheConnectionCloses() {
+        properties.getMetrics().setPerConnection(true);
+        ReceiverMetrics metrics = new ReceiverMetrics(meterRegistry, properties);
+
+        metrics.connectionOpened();
+        metrics.socketBuffers("c1", 65536, 131072);
+        assertThat(meterRegistry.get("receiver.connection.so.rcvbuf").tag("connection", "c1").gauge().value())
+                .isEqualTo(131072);
+
+        metrics.connectionClosed("c1", null);
+        assertThat(meterRegistry.find("receiver.connection.so.rcvbuf").gauges()).isEmpty();
+    }
+
+    private double gauge(String name, String stat) {
+        return meterRegistry.get(name).tag("stat", stat).gauge().value();
+    }
+}